@@ -0,0 +1,89 @@
+/*
+ * ChannelStorage.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * A {@code Storage} which uses the positional read and write operations of
+ * a {@code FileChannel}. Since those operations do not depend on a shared
+ * file pointer, any number of threads may access the file at the same time
+ * without any synchronization.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.1
+ * @see Storage
+ * @see FileChannel
+ */
+class ChannelStorage implements Storage {
+
+	/**
+	 * The file used to obtain the channel.
+	 */
+	private RandomAccessFile file;
+
+	/**
+	 * The channel through which all reads and writes are made.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Opens the file in the given path for reading and writing.
+	 * 
+	 * @param dbPath the path to the database file.
+	 * @throws FileNotFoundException if the database file cannot be located.
+	 */
+	public ChannelStorage(String dbPath) throws FileNotFoundException {
+		this.file = new RandomAccessFile(dbPath, "rw");
+		this.channel = this.file.getChannel();
+	}
+
+	@Override
+	public void read(long position, byte[] buffer, int offset, int length) 
+			throws IOException {
+		ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+
+		// A positional read may transfer fewer bytes than requested.
+		while (target.hasRemaining()) {
+			long current = position + target.position() - offset;
+			if (this.channel.read(target, current) < 0) {
+				throw new EOFException();
+			}
+		}
+	}
+
+	@Override
+	public void write(long position, byte[] buffer) throws IOException {
+		ByteBuffer source = ByteBuffer.wrap(buffer);
+		while (source.hasRemaining()) {
+			this.channel.write(source, position + source.position());
+		}
+	}
+
+	@Override
+	public long length() throws IOException {
+		return this.channel.size();
+	}
+
+	@Override
+	public void force() throws IOException {
+		this.channel.force(true);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+		this.file.close();
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * CriteriaMatcher.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.UnsupportedEncodingException;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+
+
+/**
+ * A search criteria compiled to be matched directly against the bytes of
+ * the records, as they are stored in the file. Each {@code non-null} 
+ * element of the criteria is encoded once, and a record matches if each
+ * of its fields begins with the bytes of the respective element. No object
+ * is created while matching records. <p>
+ * 
+ * Comparing bytes gives the same result as comparing the decoded fields 
+ * only when each byte is decoded to exactly one character, so criteria
+ * can only be compiled for the <tt>ISO-8859-1</tt> charset.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see Record#matches(String[])
+ * @see Schema
+ */
+class CriteriaMatcher {
+
+	/**
+	 * The charset in which a byte is always decoded to a single character.
+	 */
+	private static final String SINGLE_BYTE_CHARSET = "ISO-8859-1";
+
+	/**
+	 * The position of each field to compare, from the start of the record
+	 * including the deleted flag.
+	 */
+	private int[] offsets;
+
+	/**
+	 * The encoded criteria of each field to compare.
+	 */
+	private byte[][] patterns;
+
+	/**
+	 * Indicates that the criteria can never be matched, because one of its
+	 * elements cannot be encoded or does not fit in the field.
+	 */
+	private boolean isImpossible;
+
+	/**
+	 * Creates a matcher for the given offsets and encoded criteria.
+	 */
+	private CriteriaMatcher(int[] offsets, byte[][] patterns, 
+			boolean isImpossible) {
+		this.offsets = offsets;
+		this.patterns = patterns;
+		this.isImpossible = isImpossible;
+	}
+
+	/**
+	 * Compiles the given criteria for the records described by the schema. 
+	 * Returns {@code null} if the records are not stored in a charset where 
+	 * bytes can be compared instead of characters.
+	 * 
+	 * @param criteria an array of strings with the expressions to match.
+	 * @param schema the schema of the records to match.
+	 * @param charset the name of the charset of the records.
+	 * @return the compiled criteria, or {@code null} if it cannot be 
+	 * compiled for the charset.
+	 */
+	public static CriteriaMatcher compile(String[] criteria, Schema schema,
+			String charset) {
+		if (!Charset.forName(charset).name().equals(SINGLE_BYTE_CHARSET)) {
+			return null;
+		}
+		CharsetEncoder encoder = Charset.forName(charset).newEncoder();
+
+		int count = 0;
+		for (int i = 0; i < schema.getNumberOfColumns(); i++) {
+			if (criteria[i] != null) {
+				count++;
+			}
+		}
+		int[] offsets = new int[count];
+		byte[][] patterns = new byte[count][];
+		boolean isImpossible = false;
+
+		// Fields start right after the deleted flag.
+		for (int i = 0, j = 0, offset = 1; i < schema.getNumberOfColumns(); 
+				offset += schema.getColumnSize(i), i++) {
+			String value = criteria[i];
+			if (value == null) {
+				continue;
+			}
+			if (value.length() > schema.getColumnSize(i) 
+					|| !encoder.canEncode(value)) {
+				isImpossible = true;
+			}
+			offsets[j] = offset;
+			try {
+				patterns[j] = value.getBytes(charset);
+			} catch (UnsupportedEncodingException e) {
+				return null;
+			}
+			j++;
+		}
+		return new CriteriaMatcher(offsets, patterns, isImpossible);
+	}
+
+	/**
+	 * Returns <tt>true</tt> if the record stored in the buffer, starting 
+	 * with its deleted flag at {@code start}, is not deleted and each field
+	 * begins with the respective {@code non-null} element of the criteria.
+	 * 
+	 * @param buffer the buffer with the record bytes.
+	 * @param start the position in the buffer of the deleted flag.
+	 * @return <tt>true</tt> if the record matches the criteria and 
+	 * <tt>false</tt> otherwise.
+	 */
+	public boolean matches(byte[] buffer, int start) {
+		if (this.isImpossible || buffer[start] == 1) {
+			return false;
+		}
+		for (int i = 0; i < this.patterns.length; i++) {
+			byte[] pattern = this.patterns[i];
+			int position = start + this.offsets[i];
+			for (int j = 0; j < pattern.length; j++) {
+				if (buffer[position + j] != pattern[j]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+}
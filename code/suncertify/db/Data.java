@@ -1,576 +1,1965 @@
-/*
- * Data.java		
- * 
- * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
- */
-
-package suncertify.db;
-
-import java.io.EOFException;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.RandomAccessFile;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Properties;
-import java.util.Set;
-import java.util.TreeSet;
-
-import suncertify.utils.PropertyHelper;
-import suncertify.utils.Utilities;
-
-
-/**
- * This class does all the access manipulation relative to the physical
- * file that is the database.
- * 
- * @author Pedro Oliveira
- * @see DB
- * @version 1.5
- */
-public class Data implements DB {
-
-	/**
-	 * The database Id or magic cookie.
-	 */
-	private static final int COOKIE;
-
-	/**
-	 * Character enconding presented in the database file.
-	 */
-	private static final String CHARSET;
-
-	/**
-	 * This initializer block loads property values from the application
-	 * properties file.
-	 */
-	static {	  
-		Properties prop;
-		try {
-			prop = Utilities.loadProperties("suncertify.properties");
-		} catch (IOException e) {
-			prop = System.getProperties();
-		}		
-		PropertyHelper propHelper = new PropertyHelper(prop);
-		COOKIE = propHelper.getPropertyAsInteger("db.cookie");
-		CHARSET = propHelper.getPropertyAsString("db.charset");
-	}        
-
-	/**
-	 * The reference to access database information.
-	 */
-	private RandomAccessFile database;
-
-	/**
-	 * The database schema object retrieved from file.
-	 */
-	private Schema schema;
-
-	/**
-	 * The offset from the beginning of the data section in the file, 
-	 * in bytes, at which the first read or write occurs. 
-	 */
-	private long dataOffset;
-
-	/**
-	 * The map which maps between record numbers and cookie values.
-	 */
-	private Map<Integer, Long> cookieMap;
-
-	/**
-	 * The set with the record numbers of all the deleted records.
-	 */
-	private Set<Integer> deletedRecNumbers;
-
-	/**
-	 * The initial number of records in the database.
-	 */
-	private int initialNumberOfRecords;
-
-	/**
-	 * 
-	 * 
-	 * @param dbPath the path to the database file.
-	 * @throws FileNotFoundException if the database file cannot be located.
-	 * @throws IOException if the user has no permissions for manipulating the
-	 * file.
-	 * @throws UnknownDBException if the database magic cookie is different
-	 * from the expected.
-	 * @throws InvalidSchemaException if the header information is not
-	 * consistent with the number of records in the database.
-	 */
-	public Data(String dbPath) throws FileNotFoundException, IOException,
-			UnknownDBException, InvalidSchemaException {
-		this.cookieMap = new HashMap<Integer, Long>();
-		this.database = new RandomAccessFile(dbPath, "rw");		
-
-		// Read start of database file and validate database id.
-		int magicCookie = this.database.readInt();	
-		if (magicCookie != COOKIE) {
-			throw new UnknownDBException();
-		}	
-		int recSize = this.database.readInt();
-		short nbrOfFields = this.database.readShort();
-
-		// Create schema using header information.
-		buildSchema(recSize, nbrOfFields);	
-
-		// Set variable with the current file position in bytes.
-		this.dataOffset = this.database.getFilePointer();
-
-		/*
-		 * Initialize set with deleted record numbers and
-		 * set initialNumberOfRecords variable. 
-		 */
-		this.deletedRecNumbers = getDeletedRecNumbers();
-
-		// Validate the schema consistency.
-		if(!isSchemaValid()) {
-			throw new InvalidSchemaException();
-		}
-	}	
-
-	/**
-	 * Reads the header information presented in the database file and 
-	 * creates a schema object dynamically. 
-	 */
-	private void buildSchema(int recSize, int nbrOfFields) throws IOException {
-		this.schema = new Schema(recSize, nbrOfFields);	
-
-		// Read database header and fill schema object.
-		for (int i = 0; i < nbrOfFields; i++) {
-			short numberOfBytes = this.database.readShort();
-			byte[] fieldArray = new byte[numberOfBytes];
-			this.database.readFully(fieldArray);
-			String columnName = new String(fieldArray, CHARSET);			
-			short fieldLength = this.database.readShort();
-			this.schema.addColumn(i, columnName, fieldLength);
-		}					
-	}
-
-
-	// Implemented methods from DB interface
-
-
-	/* (non-Javadoc)
-	 * @see suncertify.db.DB#create(String[])
-	 */
-	@Override
-	public int create(String[] data) throws DuplicateKeyException {
-		int recNo = 0;
-		Record record = new Record(data);
-
-		// Check for duplicate keys using the find() method.
-		String[] criteria = record.clearNonKeyValues();
-		int[] matches = find(criteria);
-		if(matches.length > 0) {
-			throw new DuplicateKeyException();
-		}
-
-		try {
-			// If records have been deleted the numbers should be reused.
-			synchronized (this.deletedRecNumbers) {
-				if (!this.deletedRecNumbers.isEmpty()) {
-					recNo = this.deletedRecNumbers.iterator().next();
-					insertRecord(data);
-					this.deletedRecNumbers.remove(recNo);
-					return recNo;
-				}
-			}
-
-			// If not, create a new record in the end of the database.
-			synchronized (this.database) {
-				this.database.seek(this.database.length());
-				recNo = calculateRecordNumber(this.database.length());
-				insertRecord(data);
-			}
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return recNo;
-	}
-
-	/* (non-Javadoc)
-	 * @see suncertify.db.DB#update(int,String[],long)
-	 */
-	@Override
-	public void update(int recNo, String[] data, long lockCookie)
-			throws RecordNotFoundException, SecurityException {	
-		
-		long position = calculatePosition(recNo);
-
-		// Before updating one must old the lock on the given record.
-		if(!isCookieCorrect(recNo, lockCookie)) {
-			throw new SecurityException();
-		}
-
-		synchronized (this.database) {
-			try {
-				this.database.seek(position);
-				updateRecord(data);
-			} catch (IOException e) {
-				throw new RecordNotFoundException();
-			}
-		}			
-	}	
-
-	/* (non-Javadoc)
-	 * @see suncertify.db.DB#delete(int,long)
-	 */
-	@Override
-	public void delete(int recNo, long lockCookie) 
-			throws RecordNotFoundException, SecurityException {
-
-		long position = calculatePosition(recNo);
-
-		// Before deleting one must old the lock on the given record.
-		if(!isCookieCorrect(recNo, lockCookie)) {
-			throw new SecurityException();
-		}
-
-		try {
-			synchronized (this.database) {
-				this.database.seek(position);
-				deleteRecord();
-			}
-			synchronized (this.deletedRecNumbers) {
-				this.deletedRecNumbers.add(recNo);
-			}								
-		} catch (IOException e) {
-			throw new RecordNotFoundException();
-		}
-	}
-
-	/* (non-Javadoc)
-	 * @see suncertify.db.DB#find(String[])
-	 */
-	@Override
-	public int[] find(String[] criteria) {
-		List<Integer> matches = new ArrayList<Integer>();
-		List<Record> records = new ArrayList<Record>();
-
-		try {
-			int recNo = 0;
-			synchronized (this.database) {
-				this.database.seek(this.dataOffset);
-				records = getRecordList();
-			}
-
-			// Add record numbers for records that match the criteria.
-			for (Record r : records) {
-				if (!r.isDeleted() && r.matches(criteria)) {
-					matches.add(recNo);
-				}
-				recNo++;
-			}
-		} catch (IOException e) {
-			return Utilities.toIntArray(matches);
-		}			
-		return Utilities.toIntArray(matches);
-	}
-
-	/* (non-Javadoc)
-	 * @see suncertify.db.DB#read(int)
-	 */
-	@Override
-	public String[] read(int recNo) throws RecordNotFoundException {
-		Record record = null;	
-		
-		long position = calculatePosition(recNo);
-
-		synchronized (this.database) {
-			try {
-				this.database.seek(position);
-				record = getRecord();
-				if (record.isDeleted()) {
-					throw new RecordNotFoundException();
-				}
-			} catch (IOException e) {
-				throw new RecordNotFoundException();
-			}	    
-		}		
-		return record.getStringArray();
-	}
-
-
-	// Lock and unlock methods
-
-
-	/* (non-Javadoc)
-	 * @see suncertify.db.DB#lock(int)
-	 */
-	@Override
-	public long lock(int recNo) throws RecordNotFoundException {
-		long cookie = 0;
-
-		// Before locking the record one musth check if it exists.
-		if (!hasRecord(recNo)) {
-			throw new RecordNotFoundException();
-		}
-
-		/*
-		 * Check the cookieMap to determine if the record as been locked and
-		 * if it has wait for turn. Otherwise generated a cookie based on
-		 * the current time and fill the map with locking information.
-		 */		
-		synchronized (this.cookieMap) {
-			if (this.cookieMap.containsKey(recNo)) {
-				try {
-					this.cookieMap.wait();
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			} else {
-				cookie = System.currentTimeMillis();
-				this.cookieMap.put(recNo, cookie);		
-			}	    	   
-		}	
-		return cookie;
-	}    
-
-	/* (non-Javadoc)
-	 * @see suncertify.db.DB#unlock(int, long)
-	 */
-	@Override
-	public void unlock(int recNo, long lockCookie) 
-			throws RecordNotFoundException, SecurityException {
-
-		/*
-		 * Checks the coookieMap for the record number and if it holds
-		 * the lock notifies all threads waiting on the cookie map. 
-		 */
-		synchronized (this.cookieMap) {
-			if (this.cookieMap.containsKey(recNo)) {
-				long recordCookie = this.cookieMap.get(recNo);
-				if (recordCookie == lockCookie) {
-					this.cookieMap.remove(recNo);
-					this.cookieMap.notifyAll();
-				} else {
-					throw new SecurityException();
-				}
-			} else {
-				throw new RecordNotFoundException();
-			}
-		}	
-	}
-
-	/**
-	 * Returns true if a record was found for the given record number and 
-	 * false otherwise.
-	 */
-	private boolean hasRecord(int recNo) {
-
-		long position = calculatePosition(recNo);
-
-		try {
-			synchronized (this.database) {
-				this.database.seek(position);
-				
-				// First byte corresponds to the deleted flag.
-				int deletedFlag = this.database.readByte();
-				if (deletedFlag == 1) {
-					return false;
-				}				
-			}	   
-		} catch (IOException e) {
-			return false;
-		}
-		return true;
-	}		
-	
-	/**
-	 * Returns true if the lock cookie passed has parameter is the correct
-	 * cookie value locking the record number passed as parameter. 
-	 */
-	private boolean isCookieCorrect(int recNo, long lockCookie) {		
-		synchronized (this.cookieMap) {
-			if (this.cookieMap.containsKey(recNo)) {
-				long actualCookie = cookieMap.get(recNo);
-				return actualCookie == lockCookie;		
-			} else {
-				return false;
-			}	    	   
-		}	
-	}
-
-
-	// Database manipulation methods. 
-	
-
-	/**
-	 * Inserts a data record in the current file position. It assumes
-	 * the file pointer has just been set in the desired position.
-	 * 
-	 * Before inserting the record data, the first byte is set to "0" since it
-	 * represents the deleted flag ("0" means the record is not deleted). 
-	 */
-	private void insertRecord(String[] data) throws IOException {
-
-		// First byte corresponds to the deleted flag, must be set to "0".	 
-		this.database.writeByte(0);
-
-		// Using the database schema create the String array data dynamically.
-		for (int i = 0; i < data.length; i++) {
-			int size = this.schema.getColumnSize(i);
-			byte[] field = new byte[size];
-			field = data[i].getBytes(CHARSET);
-			this.database.write(field);
-		}		
-	}    
-
-	/**
-	 * Deletes a data record in the current file position. It assumes
-	 * the file pointer has just been set in the desired position.
-	 * 
-	 * The deletion process sets the first byte to "1" which means the record
-	 * is deleted and than sets the remaing record size with null fields. 
-	 */
-	private void deleteRecord() throws IOException {	
-
-		// First byte corresponds to the deleted flag, must be set to "1".	 
-		this.database.writeByte(1);
-
-		// Set the record with null fields. 
-		byte[] recordArray = new byte[this.schema.getRecordSize()];	
-		this.database.write(recordArray);	
-	}    
-
-	/**
-	 * Updates a data record in the current file position. It assumes
-	 * the file pointer has just been set in the desired position.
-	 * 
-	 * The first byte is skipped since it refers to the deleted flag. Than
-	 * the remaing fields are updated with the respective string array data.
-	 */
-	private void updateRecord(String[] data) throws IOException {	
-
-		// First byte corresponds to the deleted flag, which should be skipped. 
-		this.database.skipBytes(1);	
-
-		// Using the database schema create the String array data dynamically.
-		for (int i = 0; i < data.length; i++) {
-			int size = this.schema.getColumnSize(i);
-			byte[] field = new byte[size];
-			field = data[i].getBytes(CHARSET);
-			this.database.write(field);
-		}	
-	}
-
-	/**
-	 * Returns the current Record object. It assumes the file pointer 
-	 * has just been set in the desired position.
-	 */
-	private Record getRecord() throws RecordNotFoundException, IOException {
-		String[] data = new String[this.schema.getNumberOfColumns()];
-
-		// First byte corresponds to the deleted flag.	 
-		int deletedFlag = this.database.readByte();
-
-		// Read the full record from the database to a byte array. 
-		byte[] recordArray = new byte[this.schema.getRecordSize()];
-		this.database.readFully(recordArray);			
-
-		// Using the database schema create the String array data dynamically.
-		for (int i = 0, st = 0; i < data.length; i++) {
-			int size = this.schema.getColumnSize(i);
-			byte[] field = new byte[size];
-			field = Arrays.copyOfRange(recordArray, st, st + size);			
-			data[i] = new String(field, CHARSET);
-			st = st + size;
-		}	
-		return new Record(data, deletedFlag);
-	}    
-
-	/**
-	 * Returns a Record list with all elements in the database. It assumes
-	 * the file pointer has just been set in the desired position. 
-	 * 
-	 * Typically the file pointer is going to be set with the dataOffset value.
-	 */
-	private List<Record> getRecordList() throws IOException {
-		List<Record> recordList = new ArrayList<Record>();
-
-		// Retrieve records until end-of-file occurs.
-		while (true) {
-			try {
-				Record record = getRecord();					
-				recordList.add(record);
-			} catch (RecordNotFoundException e) {
-				continue;			
-			} catch (EOFException e) {
-				return recordList;
-			}		
-		}
-	}      
-
-	/**
-	 * Returns a set with the record numbers of all the deleted records and
-	 * sets the initialNumberOfRecords variable with the number of total 
-	 * records found (This avoids reading the database twice).
-	 * 
-	 * The set with the deleted records is orderer in natural order to make
-	 * the insertion mechanism more fast.
-	 */
-	private Set<Integer> getDeletedRecNumbers() throws IOException {
-		Set<Integer> deletedRecNumbers = new TreeSet<Integer>();
-		int recNo = 0;
-		
-		// Retrieve records until end-of-file occurs.
-		while (true) {
-			try {
-				Record record = getRecord();	
-				if (record.isDeleted()) {
-					deletedRecNumbers.add(recNo);
-				}
-				recNo++;
-			} catch (RecordNotFoundException e) {
-				continue;					// Deleted record skipped.
-			} catch (EOFException e) {
-				
-				// No need to decrement because it starts with 0.
-				this.initialNumberOfRecords = recNo;
-				return deletedRecNumbers;	 
-			}		
-		}
-	}  	
-
-	/**
-	 * Validates consistency between schema sizes. Calculate the database
-	 * size using the schema information and the total number of records found
-	 * and compares with the actual file size.
-	 */
-	private boolean isSchemaValid() throws IOException {
-
-		// Calculated size.
-		long actualRecordSize = this.schema.getRecordSize() + 1;
-		long recordsSize = this.initialNumberOfRecords * actualRecordSize;		
-		long size = this.dataOffset + recordsSize;
-
-		return database.length() == size;
-	}
-
-	
-	// Conversion methods.
-
-
-	/**
-	 * Calculates the number of bytes to get to the given record number.
-	 */
-	private long calculatePosition(int recNo) {	
-		int totalRecordSize = this.schema.getRecordSize() + 1;
-		return this.dataOffset + (recNo * totalRecordSize);
-	}   
-
-	/**
-	 * Calculates the record number for the given position in number of bytes.
-	 */
-	private int calculateRecordNumber(long position) {
-		int totalRecordSize = this.schema.getRecordSize() + 1;	
-		int recNo = (int) ((position - this.dataOffset) / totalRecordSize);			
-		return recNo;
-	}   	
-}
+/*
+ * Data.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import suncertify.utils.PropertyHelper;
+import suncertify.utils.Utilities;
+
+
+/**
+ * This class does all the access manipulation relative to the physical
+ * file that is the database.
+ * 
+ * @author Pedro Oliveira
+ * @see DB
+ * @see ExtendedDB
+ * @version 1.38
+ */
+public class Data implements ExtendedDB {
+
+	/**
+	 * The logger of the failures which cannot be reported to a caller.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(
+			Data.class.getName());
+
+	/**
+	 * The storage mode which accesses the file with a 
+	 * {@code RandomAccessFile}.
+	 */
+	public static final String FILE_STORAGE = "file";
+
+	/**
+	 * The storage mode which accesses the file through a memory mapping.
+	 */
+	public static final String MAPPED_STORAGE = "mapped";
+
+	/**
+	 * The storage mode which accesses the file using the positional 
+	 * operations of a {@code FileChannel}.
+	 */
+	public static final String CHANNEL_STORAGE = "channel";
+
+	/**
+	 * The number of latches shared by the records of the database.
+	 */
+	private static final int LATCH_STRIPES = 64;
+
+	/**
+	 * The number of records read at once when scanning the file.
+	 */
+	private static final int SCAN_BLOCK_SIZE = 256;
+
+	/**
+	 * The indices of the fields which are part of the primary key.
+	 */
+	private static final int[] KEY_INDICES = Record.getKeyIndices();
+
+	/**
+	 * The database Id or magic cookie.
+	 */
+	private static final int COOKIE;
+
+	/**
+	 * Character enconding presented in the database file.
+	 */
+	private static final String CHARSET;
+
+	/**
+	 * The storage mode used to access the database file.
+	 */
+	private static final String STORAGE_MODE;
+
+	/**
+	 * Indicates if all the records are kept in memory (resident mode).
+	 */
+	private static final boolean RESIDENT;
+
+	/**
+	 * Indicates if the fields of the records are indexed to serve searches.
+	 */
+	private static final boolean PREFIX_INDEX;
+
+	/**
+	 * The minimum number of records of the file for a scan to be split
+	 * between the search threads.
+	 */
+	private static final int PARALLEL_THRESHOLD;
+
+	/**
+	 * The maximum number of threads used to scan the file in parallel.
+	 */
+	private static final int SEARCH_THREADS;
+
+	/**
+	 * The pool of threads shared by all parallel scans. It is created only
+	 * when the first parallel scan is needed.
+	 */
+	private static ExecutorService searchPool;
+
+	/**
+	 * The flag which indicates if the state of the records and the indexes
+	 * are kept in an index file next to the database file.
+	 */
+	private static final boolean INDEX_FILE;
+
+	/**
+	 * The instances which save the index file when the application exits.
+	 * The instances are weakly referenced, so they are not kept alive by 
+	 * this map.
+	 */
+	private static Map<Data, Boolean> openInstances;
+
+	/**
+	 * The flag which indicates if the changes are recorded in a write-ahead
+	 * log before they are written to the database file.
+	 */
+	private static final boolean WRITE_AHEAD_LOG;
+
+	/**
+	 * The durability of the write-ahead log: <tt>commit</tt>, <tt>os</tt> 
+	 * or the interval between forces in milliseconds.
+	 */
+	private static final String LOG_DURABILITY;
+
+	/**
+	 * The size of the write-ahead log, in bytes, which triggers a 
+	 * checkpoint.
+	 */
+	private static final long LOG_CHECKPOINT_SIZE;
+
+	/**
+	 * The time, in milliseconds, after which a lock not used expires, or
+	 * zero if the locks never expire.
+	 */
+	private static final long LOCK_LEASE;
+
+	/**
+	 * This initializer block loads property values from the application
+	 * properties file.
+	 */
+	static {	  
+		Properties prop;
+		try {
+			prop = Utilities.loadProperties("suncertify.properties");
+		} catch (IOException e) {
+			prop = System.getProperties();
+		}		
+		PropertyHelper propHelper = new PropertyHelper(prop);
+		COOKIE = propHelper.getPropertyAsInteger("db.cookie");
+		CHARSET = propHelper.getPropertyAsString("db.charset");
+		STORAGE_MODE = propHelper.getPropertyAsString("db.storage", 
+				CHANNEL_STORAGE);
+		RESIDENT = propHelper.getPropertyAsBoolean("db.resident", false);
+		PREFIX_INDEX = propHelper.getPropertyAsBoolean("db.prefixIndex", 
+				false);
+		PARALLEL_THRESHOLD = propHelper.getPropertyAsInteger(
+				"db.search.parallelThreshold", 100000);
+		SEARCH_THREADS = propHelper.getPropertyAsInteger(
+				"db.search.threads", 
+				Math.min(4, Runtime.getRuntime().availableProcessors()));
+		INDEX_FILE = propHelper.getPropertyAsBoolean("db.indexFile", false);
+		WRITE_AHEAD_LOG = propHelper.getPropertyAsBoolean("db.wal", false);
+		LOG_DURABILITY = propHelper.getPropertyAsString("db.wal.durability", 
+				WriteAheadLog.OS);
+		LOG_CHECKPOINT_SIZE = propHelper.getPropertyAsInteger(
+				"db.wal.checkpointSize", 4 * 1024 * 1024);
+		LOCK_LEASE = propHelper.getPropertyAsInteger("db.lock.lease", 0);
+	}        
+
+	/**
+	 * The reference to access database information.
+	 */
+	private Storage database;
+
+	/**
+	 * The latches held while reading or writing each record.
+	 */
+	private RecordLatches latches;
+
+	/**
+	 * The in-memory table with all the records, used only in the resident
+	 * mode. It is {@code null} otherwise.
+	 */
+	private RecordTable table;
+
+	/**
+	 * The index with the record number of each primary key.
+	 */
+	private KeyIndex keyIndex;
+
+	/**
+	 * The index of the fields of all records, used to serve searches. It is
+	 * {@code null} if the fields are not indexed.
+	 */
+	private PrefixIndex prefixIndex;
+
+	/**
+	 * The database schema object retrieved from file.
+	 */
+	private Schema schema;
+
+	/**
+	 * The offset from the beginning of the data section in the file, 
+	 * in bytes, at which the first read or write occurs. 
+	 */
+	private long dataOffset;
+
+	/**
+	 * The logical locks of the records, with their cookies.
+	 */
+	private LockManager lockManager;
+
+	/**
+	 * The owner of the locks taken by each thread, if it is not the thread
+	 * itself.
+	 */
+	private ThreadLocal<Object> lockOwners = new ThreadLocal<Object>();
+
+	/**
+	 * The codec which converts records to and from their bytes in the file.
+	 */
+	private RecordCodec codec;
+
+	/**
+	 * The live and deleted state of all the records in the database.
+	 */
+	private RecordBitmap records;
+
+	/**
+	 * The snapshots seen by the searches and the previous versions of the
+	 * records they need.
+	 */
+	private RecordVersions versions = new RecordVersions();
+
+	/**
+	 * The index file of the database, or {@code null} if it is not used.
+	 */
+	private IndexFile indexFile;
+
+	/**
+	 * The write-ahead log of the database, or {@code null} if it is not 
+	 * used.
+	 */
+	private WriteAheadLog log;
+
+	/**
+	 * The version of the index file after the last change made by this 
+	 * instance. It only grows, even if concurrent changes finish out of 
+	 * order.
+	 */
+	private AtomicInteger indexVersion = new AtomicInteger();
+
+	/**
+	 * 
+	 * 
+	 * @param dbPath the path to the database file.
+	 * @throws FileNotFoundException if the database file cannot be located.
+	 * @throws IOException if the user has no permissions for manipulating the
+	 * file.
+	 * @throws UnknownDBException if the database magic cookie is different
+	 * from the expected.
+	 * @throws InvalidSchemaException if the header information is not
+	 * consistent with the number of records in the database.
+	 */
+	public Data(String dbPath) throws FileNotFoundException, IOException,
+			UnknownDBException, InvalidSchemaException {
+		this.latches = new RecordLatches(LATCH_STRIPES);
+		this.database = openStorage(dbPath);
+		this.lockManager = new LockManager(LOCK_LEASE);
+
+		// A database which fails to open leaves no file or thread behind.
+		boolean isOpen = false;
+		try {
+			open(dbPath);
+			isOpen = true;
+		} finally {
+			if (!isOpen) {
+				abandon();
+			}
+		}
+	}
+
+	/**
+	 * Reads the header and the records of the opened database file, or 
+	 * the index file, building the schema, the state of the records and 
+	 * the indexes.
+	 */
+	private void open(String dbPath) throws IOException, UnknownDBException,
+			InvalidSchemaException {
+
+		// Changes left in the log are written before the file is read.
+		if (WRITE_AHEAD_LOG) {
+			this.log = WriteAheadLog.forDatabase(dbPath, this.database, 
+					LOG_DURABILITY, LOG_CHECKPOINT_SIZE);
+		}
+
+		// Read start of database file and validate database id.
+		ByteBuffer start = readHeader(0, 10);
+		int magicCookie = start.getInt();	
+		if (magicCookie != COOKIE) {
+			throw new UnknownDBException();
+		}	
+		int recSize = start.getInt();
+		short nbrOfFields = start.getShort();
+
+		/*
+		 * Create schema using header information and set variable with 
+		 * the file position in bytes where the header ends.
+		 */
+		this.dataOffset = buildSchema(10, recSize, nbrOfFields);
+		this.codec = new RecordCodec(this.schema, CHARSET);
+
+		/*
+		 * Calculate the number of records from the file size and validate 
+		 * the schema consistency. The file must end with a full record.
+		 */
+		long recordLength = recSize + 1;
+		long recordsSize = this.database.length() - this.dataOffset;
+		if (recordsSize < 0 || recordsSize % recordLength != 0
+				|| recordsSize / recordLength > Integer.MAX_VALUE) {
+			throw new InvalidSchemaException();
+		}
+		int count = (int) (recordsSize / recordLength);
+
+		/*
+		 * Initialize the state of the records from the index file, if it 
+		 * matches the database file, or from the records. In the resident 
+		 * mode the records are always read, and kept in memory at the same
+		 * time.
+		 */
+		if (INDEX_FILE) {
+			this.indexFile = IndexFile.forDatabase(dbPath);
+			this.indexVersion.set(this.indexFile.getVersion());
+		}
+		if (!loadIndexFile(count)) {
+			createIndexes(count);
+			loadRecords(count);
+		}
+		if (this.indexFile != null) {
+			register(this);
+		}
+	}	
+
+	/**
+	 * Closes the database file, stops the lock manager and releases the log
+	 * and the index file of a database which failed to open.
+	 */
+	private void abandon() {
+		this.lockManager.close();
+		if (this.indexFile != null) {
+			this.indexFile.release();
+		}
+		try {
+			if (this.log != null) {
+				this.log.close(this.database);
+			}
+			this.database.close();
+		} catch (IOException e) {
+
+			// The failure to open is reported instead.
+		}
+	}
+
+	/**
+	 * Creates the empty resident table and indexes, with the given number 
+	 * of records reserved in the record bitmap.
+	 */
+	private void createIndexes(int count) {
+		if (RESIDENT) {
+			this.table = new RecordTable();
+		}
+		this.keyIndex = new KeyIndex();
+		if (PREFIX_INDEX) {
+			this.prefixIndex = new PrefixIndex(this.schema.getNumberOfColumns());
+		}
+		this.records = new RecordBitmap();
+		this.records.reserve(count);
+	}
+
+	/**
+	 * Loads the state of the records and the indexes from the index file.
+	 * Returns false if the index file is not used or does not match the
+	 * database file. <p>
+	 * 
+	 * In the resident mode the index file is never loaded, since all the
+	 * records are read into the resident table at open anyway, and the 
+	 * indexes are built from them in the same pass.
+	 */
+	private boolean loadIndexFile(int count) {
+		if (this.indexFile == null || RESIDENT) {
+			return false;
+		}
+		createIndexes(count);
+		return this.indexFile.load(this.records, this.keyIndex, 
+				this.prefixIndex);
+	}
+
+	/**
+	 * Closes the database file and saves the index file, if it is used and
+	 * this instance has seen all the changes made to the database. If the 
+	 * write-ahead log is used, the changes are forced to the database file
+	 * and the log is emptied. The log and the index file are released, so
+	 * they are closed with the last instance of their database file.
+	 * 
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void close() throws IOException {
+		this.lockManager.close();
+		try {
+			if (this.log != null) {
+				this.log.close(this.database);
+			}
+			this.database.close();
+			saveIndexFile();
+		} finally {
+			if (this.indexFile != null) {
+				unregister(this);
+				this.indexFile.release();
+			}
+		}
+	}
+
+	/**
+	 * Saves the index file if it is used, if it does not exist and if 
+	 * this instance has seen all the changes made to the database.
+	 */
+	private void saveIndexFile() throws IOException {
+		if (this.indexFile != null) {
+			this.indexFile.save(this.indexVersion.get(), this.records, 
+					this.keyIndex, this.prefixIndex);
+		}
+	}
+
+	/**
+	 * Announces to the index file a change about to be made to the 
+	 * database file.
+	 */
+	private void fileChanging() {
+		if (this.indexFile != null) {
+			this.indexFile.modified();
+		}
+	}
+
+	/**
+	 * Announces to the index file a change made to the database file.
+	 */
+	private void fileChanged() {
+		if (this.indexFile == null) {
+			return;
+		}
+		int changed = this.indexFile.modified();
+		int seen = this.indexVersion.get();
+		while (changed > seen 
+				&& !this.indexVersion.compareAndSet(seen, changed)) {
+			seen = this.indexVersion.get();
+		}
+	}
+
+	/**
+	 * Registers the given instance to save the index file when the 
+	 * application exits.
+	 */
+	private static synchronized void register(Data data) {
+		if (openInstances == null) {
+			openInstances = new WeakHashMap<Data, Boolean>();
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					saveIndexFiles();
+				}
+			});
+		}
+		openInstances.put(data, Boolean.TRUE);
+	}
+
+	/**
+	 * Unregisters the given instance once it is closed.
+	 */
+	private static synchronized void unregister(Data data) {
+		openInstances.remove(data);
+	}
+
+	/**
+	 * Saves the index files of all the registered instances. An index file
+	 * which cannot be saved is rebuilt when the database is next opened.
+	 */
+	private static synchronized void saveIndexFiles() {
+		for (Data data : openInstances.keySet()) {
+			try {
+				data.saveIndexFile();
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Index file not saved.", e);
+			}
+		}
+	}
+
+	/**
+	 * Opens the database file using the storage mode configured in the 
+	 * application properties. 
+	 */
+	private static Storage openStorage(String dbPath) 
+			throws FileNotFoundException, IOException {
+		if (MAPPED_STORAGE.equalsIgnoreCase(STORAGE_MODE)) {
+			return new MappedStorage(dbPath);
+		} else if (FILE_STORAGE.equalsIgnoreCase(STORAGE_MODE)) {
+			return new FileStorage(dbPath);
+		}
+		return new ChannelStorage(dbPath);
+	}
+
+	/**
+	 * Reads the header information presented in the database file and 
+	 * creates a schema object dynamically. Returns the position in bytes
+	 * where the header ends.
+	 */
+	private long buildSchema(long position, int recSize, int nbrOfFields) 
+			throws IOException {
+		this.schema = new Schema(recSize, nbrOfFields);	
+
+		// Read database header and fill schema object.
+		for (int i = 0; i < nbrOfFields; i++) {
+			short numberOfBytes = readHeader(position, 2).getShort();
+			position += 2;
+			byte[] fieldArray = new byte[numberOfBytes];
+			this.database.read(position, fieldArray, 0, numberOfBytes);
+			position += numberOfBytes;
+			String columnName = new String(fieldArray, CHARSET);			
+			short fieldLength = readHeader(position, 2).getShort();
+			position += 2;
+			this.schema.addColumn(i, columnName, fieldLength);
+		}					
+		return position;
+	}
+
+	/**
+	 * Returns a buffer with {@code length} bytes of the header starting in
+	 * the given position, ready to be decoded.
+	 */
+	private ByteBuffer readHeader(long position, int length) 
+			throws IOException {
+		byte[] bytes = new byte[length];
+		this.database.read(position, bytes, 0, length);
+		return ByteBuffer.wrap(bytes);
+	}
+
+
+	// Implemented methods from DB interface
+
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.DB#create(String[])
+	 */
+	@Override
+	public int create(String[] data) throws DuplicateKeyException {
+		int recNo = 0;
+
+		/*
+		 * The key is taken from the encoded record, where the fields are 
+		 * already padded or truncated as they are stored. The buffer with the
+		 * encoded record is reused only when this thread encodes another.
+		 */
+		byte[] record = this.codec.encode(data);
+		String key = this.codec.decodeKey(record, 0).getPrimaryKey();
+
+		/*
+		 * Check for duplicate keys using the primary key index. The check
+		 * and the reservation of the key and of the record number are made
+		 * atomically while holding the monitor of the index. If records have
+		 * been deleted the numbers should be reused. If not, create a new
+		 * record in the end of the database. 
+		 */
+		synchronized (this.keyIndex) {
+			if (this.keyIndex.contains(key)) {
+				throw new DuplicateKeyException();
+			}
+			recNo = this.records.allocate();
+			this.keyIndex.add(key, recNo);
+		}
+
+		// The record number is reserved, so only its latch is needed.
+		Lock latch = this.latches.writeLatch(recNo);
+		latch.lock();
+		this.versions.changing(recNo, null);
+		try {
+			fileChanging();
+			byte[] written = insertRecord(calculatePosition(recNo), record);
+			recordWritten(recNo, null, written);
+			this.records.setLive(recNo);
+			fileChanged();
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, "Record " + recNo + " not created.", e);
+			this.keyIndex.remove(key, recNo);
+			this.records.release(recNo);
+			fileChanged();
+			throw new StorageException("The record could not be written.", e);
+		} finally {
+			this.versions.changed(recNo);
+			latch.unlock();
+		}
+		return recNo;
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.DB#update(int,String[],long)
+	 */
+	@Override
+	public void update(int recNo, String[] data, long lockCookie)
+			throws RecordNotFoundException, SecurityException {	
+		
+		long position = calculatePosition(recNo);
+
+		// Before updating one must old the lock on the given record.
+		if(!isCookieCorrect(recNo, lockCookie)) {
+			throw new SecurityException();
+		}
+
+		Lock latch = this.latches.writeLatch(recNo);
+		latch.lock();
+		try {
+			if (!this.records.isLive(recNo)) {
+				throw new RecordNotFoundException();
+			}
+			Record before = getStoredRecord(recNo);
+			this.versions.changing(recNo, before);
+			try {
+				fileChanging();
+				byte[] written = updateRecord(position, data);
+				recordWritten(recNo, before, written);
+				fileChanged();
+			} finally {
+				this.versions.changed(recNo);
+			}
+		} catch (IOException e) {
+			fileChanged();
+			throw new RecordNotFoundException();
+		} finally {
+			latch.unlock();
+		}
+	}	
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.DB#delete(int,long)
+	 */
+	@Override
+	public void delete(int recNo, long lockCookie) 
+			throws RecordNotFoundException, SecurityException {
+
+		long position = calculatePosition(recNo);
+
+		// Before deleting one must old the lock on the given record.
+		if(!isCookieCorrect(recNo, lockCookie)) {
+			throw new SecurityException();
+		}
+
+		Lock latch = this.latches.writeLatch(recNo);
+		latch.lock();
+		try {
+			if (!this.records.isLive(recNo)) {
+				throw new RecordNotFoundException();
+			}
+			Record before = getStoredRecord(recNo);
+			this.versions.changing(recNo, before);
+			try {
+				fileChanging();
+				byte[] written = deleteRecord(position);
+				recordWritten(recNo, before, written);
+				this.records.setDeleted(recNo);
+				fileChanged();
+			} finally {
+				this.versions.changed(recNo);
+			}
+		} catch (IOException e) {
+			fileChanged();
+			throw new RecordNotFoundException();
+		} finally {
+			latch.unlock();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.DB#find(String[])
+	 */
+	@Override
+	public int[] find(String[] criteria) {
+		Matches matches = new Matches(false, 0, Integer.MAX_VALUE);
+		search(criteria, 0, matches);
+		return Utilities.toIntArray(matches.recNos);
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#findRecords(String[])
+	 */
+	@Override
+	public SortedMap<Integer, String[]> findRecords(String[] criteria) {
+		Matches matches = new Matches(true, 0, Integer.MAX_VALUE);
+		search(criteria, 0, matches);
+		return matches.toMap();
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#findPage(String[], long, int, int)
+	 */
+	@Override
+	public ResultPage findPage(String[] criteria, long token, int offset, 
+			int limit) {
+		if (token < 0 || token > Integer.MAX_VALUE || offset < 0 
+				|| limit <= 0) {
+			throw new IllegalArgumentException("Invalid page: token " + token
+					+ ", offset " + offset + ", limit " + limit);
+		}
+		Matches matches = new Matches(true, offset, limit);
+		search(criteria, (int) token, matches);
+
+		// The next page starts after the last record of a full page.
+		long nextToken = ResultPage.END;
+		if (matches.isFull()) {
+			nextToken = matches.recNos.get(matches.recNos.size() - 1) + 1L;
+		}
+		return new ResultPage(matches.toMap(), nextToken);
+	}
+
+	/**
+	 * Adds to the matches the records, from the record {@code from}, that
+	 * match the criteria, in the order of their numbers. The search stops
+	 * as soon as the matches are full. The records are matched as they were
+	 * when the search started, so the changes made meanwhile are not seen.
+	 */
+	private void search(String[] criteria, int from, Matches matches) {
+		matches.snapshot = this.versions.open();
+		try {
+			searchSnapshot(criteria, from, matches);
+		} finally {
+			this.versions.close(matches.snapshot);
+		}
+	}
+
+	/**
+	 * Adds to the matches the records, from the record {@code from}, that
+	 * match the criteria as seen by the snapshot of the matches. A failure
+	 * to read the database file throws a {@code StorageException}, since
+	 * the matches found up to it are not all the matches.
+	 */
+	private void searchSnapshot(String[] criteria, int from, 
+			Matches matches) {
+
+		/*
+		 * Records in memory are matched as strings, while records in the
+		 * file are matched directly against their bytes, if possible.
+		 */
+		CriteriaMatcher matcher = null;
+		if (this.table == null) {
+			matcher = CriteriaMatcher.compile(criteria, this.schema, CHARSET);
+		}
+
+		/*
+		 * Criteria with the full primary key are served by the key index and
+		 * the remaining, if possible, by the prefix index of the fields.
+		 */
+		int[] candidates = findKeyCandidates(criteria);
+		if (candidates == null && this.prefixIndex != null) {
+			candidates = this.prefixIndex.find(criteria);
+		}
+		if (candidates != null) {
+
+			// The indexes do not have the records changed after the snapshot.
+			candidates = merge(candidates, this.versions.getChangedRecords());
+			byte[] buffer = new byte[this.schema.getRecordSize() + 1];
+			for (int i = 0; i < candidates.length && !matches.isFull(); i++) {
+				if (candidates[i] >= from) {
+					matchRecord(candidates[i], criteria, matcher, buffer, 
+							matches);
+				}
+			}
+			return;
+		}
+
+		/*
+		 * Add the records that match the criteria. Large files are split 
+		 * between the search threads, unless the search may stop early.
+		 */
+		try {
+			int lastRecNo = calculateRecordNumber(this.database.length());
+			if (from == 0 && !matches.isLimited() 
+					&& lastRecNo >= PARALLEL_THRESHOLD && SEARCH_THREADS > 1) {
+				scanRecordsInParallel(lastRecNo, criteria, matcher, matches);
+			} else {
+				scanRecords(from, lastRecNo, criteria, matcher, matches);
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, "Search not completed.", e);
+			throw new StorageException("The records could not be searched.", 
+					e);
+		}			
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.DB#read(int)
+	 */
+	@Override
+	public String[] read(int recNo) throws RecordNotFoundException {
+		Record record = null;	
+
+		// Deleted records are rejected without reading the file.
+		if (!this.records.isLive(recNo)) {
+			throw new RecordNotFoundException();
+		}
+		try {
+			record = readRecord(recNo, RecordVersions.CURRENT);
+		} catch (IOException e) {
+			throw new RecordNotFoundException();
+		}	    
+		if (record.isDeleted()) {
+			throw new RecordNotFoundException();
+		}
+
+		// Records may be shared with the resident table, so return a copy.
+		return record.getStringArray().clone();
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#readMany(int[])
+	 */
+	@Override
+	public String[][] readMany(int[] recNos) {
+		String[][] result = new String[recNos.length][];
+
+		// All the records are read as they were when the first one was read.
+		long snapshot = this.versions.open();
+		try {
+			for (int i = 0; i < recNos.length; i++) {
+				if (!this.records.isLive(recNos[i]) 
+						&& !this.versions.isChanged(recNos[i])) {
+					continue;
+				}
+				try {
+					Record record = readRecord(recNos[i], snapshot);
+					if (record != null && !record.isDeleted()) {
+						result[i] = record.getStringArray().clone();
+					}
+				} catch (IOException e) {
+
+					// Not found, as for read(int).
+					result[i] = null;
+				}
+			}
+		} finally {
+			this.versions.close(snapshot);
+		}
+		return result;
+	}
+
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#readVersioned(int)
+	 */
+	@Override
+	public VersionedRecord readVersioned(int recNo) 
+			throws RecordNotFoundException {
+		if (!this.records.isLive(recNo)) {
+			throw new RecordNotFoundException();
+		}
+
+		// The stamp only matches the record while the latch is held.
+		Lock latch = this.latches.readLatch(recNo);
+		latch.lock();
+		try {
+			Record record = getStoredRecord(recNo);
+			if (record.isDeleted()) {
+				throw new RecordNotFoundException();
+			}
+			return new VersionedRecord(record.getStringArray().clone(), 
+					this.versions.getStamp(recNo));
+		} catch (IOException e) {
+			throw new RecordNotFoundException();
+		} finally {
+			latch.unlock();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#updateIfVersion(int, String[], long)
+	 */
+	@Override
+	public long updateIfVersion(int recNo, String[] data, 
+			long expectedVersion) throws RecordNotFoundException,
+			VersionConflictException {
+		long position = calculatePosition(recNo);
+
+		Lock latch = this.latches.writeLatch(recNo);
+		latch.lock();
+		try {
+			if (!this.records.isLive(recNo)) {
+				throw new RecordNotFoundException();
+			}
+
+			// A locked record may be changed by its owner at any moment.
+			if (isLocked(recNo) 
+					|| this.versions.getStamp(recNo) != expectedVersion) {
+				throw new VersionConflictException();
+			}
+			Record before = getStoredRecord(recNo);
+			long version = this.versions.changing(recNo, before);
+			try {
+				fileChanging();
+				byte[] written = updateRecord(position, data);
+				recordWritten(recNo, before, written);
+				fileChanged();
+			} finally {
+				this.versions.changed(recNo);
+			}
+			return version;
+		} catch (IOException e) {
+			fileChanged();
+			throw new RecordNotFoundException();
+		} finally {
+			latch.unlock();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#bookIfAvailable(String[], String)
+	 */
+	@Override
+	public boolean bookIfAvailable(String[] key, String customerId)
+			throws RecordNotFoundException, DuplicateKeyException {
+		return changeAvailability(key, null, customerId);
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#returnIfOwned(String[], String)
+	 */
+	@Override
+	public boolean returnIfOwned(String[] key, String customerId)
+			throws RecordNotFoundException, DuplicateKeyException {
+		return changeAvailability(key, customerId, "");
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#bookRecords(int[], String)
+	 */
+	@Override
+	public boolean bookRecords(int[] recNos, String customerId) 
+			throws RecordNotFoundException {
+		int[] sorted = sortedSet(recNos);
+		long[] cookies = new long[sorted.length];
+		int locked = 0;
+		try {
+
+			// Locked in ascending order, so bookings never deadlock each other.
+			for (; locked < sorted.length; locked++) {
+				cookies[locked] = lock(sorted[locked]);
+			}
+			String[][] data = new String[sorted.length][];
+			for (int i = 0; i < sorted.length; i++) {
+				Record record = new Record(read(sorted[i]));
+				if (!record.isAvailable()) {
+					return false;
+				}
+				record.changeAvailability(customerId);
+				data[i] = record.getStringArray();
+			}
+			updateRecords(sorted, cookies, data);
+			return true;
+		} finally {
+			for (int i = 0; i < locked; i++) {
+				try {
+					unlock(sorted[i], cookies[i]);
+				} catch (RecordNotFoundException e) {
+					
+					// The lock already expired.
+				} catch (SecurityException e) {
+					
+					// The lock expired and was handed over to another client.
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates the given records, holding their locks with the given 
+	 * cookies, in a single write to the write-ahead log, so either all or
+	 * none of them are changed. Without the log the records are written one
+	 * at a time, so a system crash, or a failed write, may leave only some
+	 * of them changed in the database file.
+	 */
+	private void updateRecords(int[] recNos, long[] cookies, String[][] data) 
+			throws RecordNotFoundException {
+		List<Lock> latches = this.latches.writeLatches(recNos);
+		int latched = 0;
+		try {
+			for (; latched < latches.size(); latched++) {
+				latches.get(latched).lock();
+			}
+			Record[] before = new Record[recNos.length];
+			for (int i = 0; i < recNos.length; i++) {
+				if (!this.records.isLive(recNos[i])) {
+					throw new RecordNotFoundException();
+				} else if (!isCookieCorrect(recNos[i], cookies[i])) {
+					throw new SecurityException();
+				}
+				before[i] = getStoredRecord(recNos[i]);
+			}
+
+			// The encoded bytes are copied, the codec reuses its buffer.
+			long[] positions = new long[recNos.length];
+			byte[][] written = new byte[recNos.length][];
+			for (int i = 0; i < recNos.length; i++) {
+				positions[i] = calculatePosition(recNos[i]);
+				written[i] = this.codec.encode(data[i]).clone();
+			}
+			int changing = 0;
+			try {
+				for (; changing < recNos.length; changing++) {
+					this.versions.changing(recNos[changing], before[changing]);
+				}
+				fileChanging();
+				writeBytes(positions, written);
+				for (int i = 0; i < recNos.length; i++) {
+					recordWritten(recNos[i], before[i], written[i]);
+				}
+				fileChanged();
+			} finally {
+				for (int i = changing - 1; i >= 0; i--) {
+					this.versions.changed(recNos[i]);
+				}
+			}
+		} catch (IOException e) {
+			fileChanged();
+			throw new RecordNotFoundException();
+		} finally {
+			for (int i = latched - 1; i >= 0; i--) {
+				latches.get(i).unlock();
+			}
+		}
+	}
+
+	/**
+	 * Sets the availability field of the record with the given primary key
+	 * to {@code value} if the field still has the {@code expected} customer,
+	 * or is empty if {@code expected} is {@code null}. The record is first
+	 * updated with the version it was read with, and only if it was changed
+	 * meanwhile or is locked, it is checked and updated holding its lock.
+	 */
+	private boolean changeAvailability(String[] key, String expected, 
+			String value) throws RecordNotFoundException, 
+			DuplicateKeyException {
+		String primaryKey = new Record(key).getPrimaryKey();
+		int[] recNumbers = this.keyIndex.get(primaryKey);
+		if (recNumbers.length == 0) {
+			throw new RecordNotFoundException();
+		} else if (recNumbers.length > 1) {
+			throw new DuplicateKeyException();		// Inconsistent database.
+		}
+		int recNo = recNumbers[0];
+
+		// Without contention the record is never locked.
+		try {
+			VersionedRecord current = readVersioned(recNo);
+			String[] data = changeAvailability(current.getData(), primaryKey, 
+					expected, value);
+			if (data == null) {
+				return false;
+			}
+			updateIfVersion(recNo, data, current.getVersion());
+			return true;
+		} catch (VersionConflictException e) {
+			// Changed or locked by another client, so wait for the lock.
+		}
+
+		long cookie = lock(recNo);
+		try {
+			String[] data = changeAvailability(read(recNo), primaryKey, 
+					expected, value);
+			if (data == null) {
+				return false;
+			}
+			update(recNo, data, cookie);
+			return true;
+		} finally {
+			unlock(recNo, cookie);
+		}
+	}
+
+	/**
+	 * Returns the given fields with the availability field set to 
+	 * {@code value}, or {@code null} if the field does not have the 
+	 * {@code expected} customer, or is not empty if {@code expected} is 
+	 * {@code null}.
+	 */
+	private static String[] changeAvailability(String[] data, 
+			String primaryKey, String expected, String value) 
+			throws RecordNotFoundException {
+
+		// The record number may have been reused by another record.
+		Record record = new Record(data);
+		if (!record.getPrimaryKey().equals(primaryKey)) {
+			throw new RecordNotFoundException();
+		}
+		boolean isExpected = (expected == null) ? record.isAvailable()
+				: record.getAvailability().trim().equals(expected.trim());
+		if (!isExpected) {
+			return null;
+		}
+		record.changeAvailability(value);
+		return record.getStringArray();
+	}
+
+
+	// Lock and unlock methods
+
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.DB#lock(int)
+	 */
+	@Override
+	public long lock(int recNo) throws RecordNotFoundException {
+
+		// Before locking the record one musth check if it exists.
+		if (!hasRecord(recNo)) {
+			throw new RecordNotFoundException();
+		}
+
+		// The record may have been deleted while waiting for the lock.
+		long cookie = this.lockManager.lock(recNo, getLockOwner());
+		if (!hasRecord(recNo)) {
+			this.lockManager.unlock(recNo, cookie);
+			throw new RecordNotFoundException();
+		}
+		return cookie;
+	}    
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#lockShared(int)
+	 */
+	@Override
+	public long lockShared(int recNo) throws RecordNotFoundException {
+		if (!hasRecord(recNo)) {
+			throw new RecordNotFoundException();
+		}
+
+		// The record may have been deleted while waiting for the lock.
+		long cookie = this.lockManager.lockShared(recNo, getLockOwner());
+		if (!hasRecord(recNo)) {
+			this.lockManager.unlock(recNo, cookie);
+			throw new RecordNotFoundException();
+		}
+		return cookie;
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#upgradeLock(int, long)
+	 */
+	@Override
+	public boolean upgradeLock(int recNo, long lockCookie) 
+			throws RecordNotFoundException, SecurityException {
+		return this.lockManager.upgrade(recNo, lockCookie, getLockOwner());
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.DB#unlock(int, long)
+	 */
+	@Override
+	public void unlock(int recNo, long lockCookie) 
+			throws RecordNotFoundException, SecurityException {
+
+		// The lock is handed over to the next client waiting for it.
+		this.lockManager.unlock(recNo, lockCookie);
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#tryLock(int, long)
+	 */
+	@Override
+	public long tryLock(int recNo, long timeout) 
+			throws RecordNotFoundException {
+		if (!hasRecord(recNo)) {
+			throw new RecordNotFoundException();
+		}
+
+		// The record may have been deleted while waiting for the lock.
+		long cookie = this.lockManager.tryLock(recNo, getLockOwner(), 
+				timeout);
+		if (cookie != LockManager.NO_COOKIE && !hasRecord(recNo)) {
+			this.lockManager.unlock(recNo, cookie);
+			throw new RecordNotFoundException();
+		}
+		return cookie;
+	}
+
+	/* (non-Javadoc)
+	 * @see suncertify.db.ExtendedDB#renewLock(int, long)
+	 */
+	@Override
+	public void renewLock(int recNo, long lockCookie) 
+			throws RecordNotFoundException, SecurityException {
+		if (!isLocked(recNo)) {
+			throw new RecordNotFoundException();
+		} else if (!this.lockManager.renew(recNo, lockCookie, false)) {
+			throw new SecurityException();
+		}
+	}
+
+	/**
+	 * Returns a description of the chain of locks each client waiting for
+	 * a record lock waits for, to find out why clients are stalled. Each
+	 * line has the record the client waits for and the clients which 
+	 * locked it and, while one of them is also waiting, the record that
+	 * one waits for, and so on. Clients are named after the owners of their
+	 * locks. <p>
+	 * 
+	 * A client which would close a cycle of waits, a deadlock, never waits
+	 * and gets a {@link DeadlockException} instead.
+	 * 
+	 * @return a line for each waiting client.
+	 */
+	public List<String> getLockWaitChains() {
+		return this.lockManager.getWaitChains();
+	}
+
+	/**
+	 * Sets the owner of the locks taken by the current thread from now on,
+	 * until it is set again. The owner is the client which uses and 
+	 * releases the locks, and is the one found waiting for them when
+	 * looking for deadlocks, so a server whose clients' calls may run in
+	 * any of its threads sets the client as the owner of each call. By
+	 * default the owner is the thread itself.
+	 * 
+	 * @param owner the owner of the locks, or <tt>null</tt> for the 
+	 * current thread.
+	 */
+	public void setLockOwner(Object owner) {
+		if (owner == null) {
+			this.lockOwners.remove();
+		} else {
+			this.lockOwners.set(owner);
+		}
+	}
+
+	/**
+	 * Returns the owner of the locks taken by the current thread.
+	 */
+	private Object getLockOwner() {
+		Object owner = this.lockOwners.get();
+		return (owner != null) ? owner : Thread.currentThread();
+	}
+
+	/**
+	 * Returns true if a record was found for the given record number and 
+	 * false otherwise.
+	 */
+	private boolean hasRecord(int recNo) {
+		return this.records.isLive(recNo);
+	}		
+	
+	/**
+	 * Returns true if the record with the given number is locked.
+	 */
+	private boolean isLocked(int recNo) {
+		return this.lockManager.isLocked(recNo);
+	}
+
+	/**
+	 * Returns true if the lock cookie passed has parameter is the correct
+	 * cookie value locking the record number passed as parameter, in
+	 * exclusive mode. Each use of the cookie renews the lease of the lock.
+	 */
+	private boolean isCookieCorrect(int recNo, long lockCookie) {		
+		return this.lockManager.renew(recNo, lockCookie, true);
+	}
+
+
+	// Resident mode statistics.
+
+
+	/**
+	 * Returns the number of reads served from memory in the resident mode.
+	 * 
+	 * @return the number of reads which found the record in memory, or 
+	 * <tt>0</tt> if the resident mode is off.
+	 */
+	public long getResidentHits() {
+		return (this.table != null) ? this.table.getHits() : 0;
+	}
+
+	/**
+	 * Returns the number of reads which, in the resident mode, had to 
+	 * read the record from the file.
+	 * 
+	 * @return the number of reads which did not find the record in memory,
+	 * or <tt>0</tt> if the resident mode is off.
+	 */
+	public long getResidentMisses() {
+		return (this.table != null) ? this.table.getMisses() : 0;
+	}
+
+	/**
+	 * Returns the estimated memory used by the records in the resident
+	 * mode.
+	 * 
+	 * @return the estimated number of bytes used by the records kept in 
+	 * memory, or <tt>0</tt> if the resident mode is off.
+	 */
+	public long getResidentFootprint() {
+		return (this.table != null) ? this.table.getFootprint() : 0;
+	}
+
+
+	// Database manipulation methods. 
+	
+
+	/**
+	 * Inserts a data record in the given file position, with a single
+	 * write of the record encoded by the caller. Returns the bytes written.
+	 * 
+	 * Before inserting the record data, the first byte is set to "0" since it
+	 * represents the deleted flag ("0" means the record is not deleted). 
+	 */
+	private byte[] insertRecord(long position, byte[] recordArray) 
+			throws IOException {
+
+		// First byte corresponds to the deleted flag, must be set to "0".	 
+		recordArray[0] = 0;
+		writeBytes(position, recordArray);
+		return recordArray;
+	}    
+
+	/**
+	 * Deletes a data record in the given file position. Returns the bytes 
+	 * written.
+	 * 
+	 * The deletion process sets the first byte to "1" which means the record
+	 * is deleted and than sets the remaing record size with null fields. 
+	 */
+	private byte[] deleteRecord(long position) throws IOException {	
+		byte[] recordArray = this.codec.encodeDeleted();
+		writeBytes(position, recordArray);	
+		return recordArray;
+	}    
+
+	/**
+	 * Updates a data record in the given file position. Returns the bytes 
+	 * written.
+	 * 
+	 * The whole record is written at once, including the deleted flag which
+	 * is always "0" for the records that can be updated. Each field is 
+	 * padded or truncated to its size, so the fields never shift.
+	 */
+	private byte[] updateRecord(long position, String[] data) 
+			throws IOException {	
+		byte[] recordArray = this.codec.encode(data);
+		writeBytes(position, recordArray);
+		return recordArray;
+	}
+
+	/**
+	 * Writes the bytes in the given file position with a single write, 
+	 * recording them first in the write-ahead log if it is used.
+	 */
+	private void writeBytes(long position, byte[] bytes) throws IOException {
+		if (this.log != null) {
+			this.log.write(this.database, position, bytes);
+		} else {
+			this.database.write(position, bytes);
+		}
+	}
+
+	/**
+	 * Writes the bytes in the given file positions, recording them first
+	 * in a single entry of the write-ahead log if it is used.
+	 */
+	private void writeBytes(long[] positions, byte[][] bytes) 
+			throws IOException {
+		if (this.log != null) {
+			this.log.write(this.database, positions, bytes);
+		} else {
+			for (int i = 0; i < positions.length; i++) {
+				this.database.write(positions[i], bytes[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the Record object stored in the given file position.
+	 */
+	private Record getRecord(long position) throws IOException {
+
+		// Read the full record, including the deleted flag, to a byte array. 
+		int recordSize = this.schema.getRecordSize();
+		byte[] recordArray = new byte[recordSize + 1];
+		this.database.read(position, recordArray, 0, recordSize + 1);			
+		return this.codec.decode(recordArray, 0);
+	}    
+
+	/**
+	 * Returns the Record object with the given record number as seen by the
+	 * snapshot, holding its read latch while the record is read from the 
+	 * file. Returns {@code null} if the record did not exist or was deleted
+	 * in the snapshot. In the resident mode the record is read from the file
+	 * only if it is not in memory.
+	 */
+	private Record readRecord(int recNo, long snapshot) throws IOException {
+		Lock latch = this.latches.readLatch(recNo);
+		latch.lock();
+		try {
+			RecordVersions.Version version = this.versions.get(recNo, 
+					snapshot);
+			if (version != null) {
+				return version.getRecord();
+			}
+			Record record = (this.table != null) ? this.table.get(recNo) 
+												 : null;
+			if (record == null) {
+				record = getRecord(calculatePosition(recNo));
+				if (this.table != null) {
+					this.table.put(recNo, record);
+				}
+			}
+			return record;
+		} finally {
+			latch.unlock();
+		}
+	}
+
+	/**
+	 * Reads the bytes of the record with the given number, including its
+	 * deleted flag, to the buffer while holding the read latch of the 
+	 * record. If the snapshot sees a previous version of the record nothing
+	 * is read and that version is returned instead.
+	 */
+	private RecordVersions.Version readRecordBytes(int recNo, byte[] buffer,
+			long snapshot) throws IOException {
+		Lock latch = this.latches.readLatch(recNo);
+		latch.lock();
+		try {
+			RecordVersions.Version version = this.versions.get(recNo, 
+					snapshot);
+			if (version == null) {
+				this.database.read(calculatePosition(recNo), buffer, 0, 
+						buffer.length);
+			}
+			return version;
+		} finally {
+			latch.unlock();
+		}
+	}
+
+	/**
+	 * Adds the record with the given number to the matches if it is not
+	 * deleted and matches the criteria, as seen by the snapshot of the 
+	 * matches. The record is matched using the compiled {@code matcher} and
+	 * the given buffer, or decoded and matched as strings if there is no 
+	 * matcher or if the snapshot sees a previous version of the record. A 
+	 * slot not marked live in the record bitmap is skipped unless it has 
+	 * previous versions, since it may be the empty slot of a record still 
+	 * being created.
+	 */
+	private void matchRecord(int recNo, String[] criteria, 
+			CriteriaMatcher matcher, byte[] buffer, Matches matches) {
+		if (!this.records.isLive(recNo) && !this.versions.isChanged(recNo)) {
+			return;
+		}
+		try {
+			Record r;
+			if (matcher == null) {
+				r = readRecord(recNo, matches.snapshot);
+			} else {
+				RecordVersions.Version version = readRecordBytes(recNo, 
+						buffer, matches.snapshot);
+				if (version == null) {
+					if (matcher.matches(buffer, 0)) {
+						matches.add(recNo, buffer);
+					}
+					return;
+				}
+				r = version.getRecord();
+			}
+			if (r != null && !r.isDeleted() && r.matches(criteria)) {
+				matches.add(recNo, r);
+			}
+		} catch (IOException e) {
+			return;							// Record not written yet.
+		}
+	}
+
+	/**
+	 * Adds to the matches the records, from {@code from} (inclusive) to 
+	 * {@code to} (exclusive), that match the criteria, until the matches 
+	 * are full. <p>
+	 * 
+	 * With a compiled {@code matcher} the records are read in blocks without
+	 * holding the latches and matched against their bytes. Only the ones 
+	 * that match, or that were changed after the snapshot, are read again,
+	 * holding the latch, to confirm the match. No objects are created for 
+	 * records that do not match.
+	 */
+	private void scanRecords(int from, int to, String[] criteria, 
+			CriteriaMatcher matcher, Matches matches) throws IOException {
+		int recordLength = this.schema.getRecordSize() + 1;
+		byte[] record = new byte[recordLength];
+
+		if (matcher == null) {
+			for (int recNo = from; recNo < to && !matches.isFull(); recNo++) {
+				matchRecord(recNo, criteria, null, record, matches);
+			}
+			return;
+		}
+
+		byte[] block = new byte[recordLength * SCAN_BLOCK_SIZE];
+		for (int first = from; first < to && !matches.isFull(); 
+				first += SCAN_BLOCK_SIZE) {
+			int count = Math.min(SCAN_BLOCK_SIZE, to - first);
+			this.database.read(calculatePosition(first), block, 0, 
+					count * recordLength);
+			for (int i = 0; i < count && !matches.isFull(); i++) {
+				if (matcher.matches(block, i * recordLength)
+						|| this.versions.isChanged(first + i)) {
+					matchRecord(first + i, criteria, matcher, record, matches);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds to the matches the records, from the first to {@code to} 
+	 * (exclusive), that match the criteria. The records are split
+	 * in ranges scanned by the search threads and the results are merged in
+	 * the order of the record numbers.
+	 */
+	private void scanRecordsInParallel(int to, final String[] criteria, 
+			final CriteriaMatcher matcher, final Matches matches) 
+			throws IOException {
+
+		// Use a few ranges per thread so the threads finish close together.
+		int rangeSize = Math.max(SCAN_BLOCK_SIZE, to / (SEARCH_THREADS * 4));
+		List<Future<Matches>> results = new ArrayList<Future<Matches>>();
+		ExecutorService pool = getSearchPool();
+		for (int from = 0; from < to; from += rangeSize) {
+			final int first = from;
+			final int last = Math.min(to, from + rangeSize);
+			results.add(pool.submit(new Callable<Matches>() {
+				@Override
+				public Matches call() throws IOException {
+					Matches rangeMatches = new Matches(matches.fields != null,
+							0, Integer.MAX_VALUE);
+					rangeMatches.snapshot = matches.snapshot;
+					scanRecords(first, last, criteria, matcher, rangeMatches);
+					return rangeMatches;
+				}
+			}));
+		}
+
+		try {
+			for (Future<Matches> result : results) {
+				matches.addAll(result.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Search interrupted.");
+		} catch (ExecutionException e) {
+			throw new IOException("Search failed: " 
+					+ e.getCause().getMessage(), e.getCause());
+		} finally {
+			for (Future<Matches> result : results) {
+				result.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Returns the pool of threads shared by the parallel scans, creating it
+	 * if needed. The pool never has more than {@code SEARCH_THREADS} 
+	 * threads, so the searches cannot take the processors from the other
+	 * operations.
+	 */
+	private static synchronized ExecutorService getSearchPool() {
+		if (searchPool == null) {
+			searchPool = Executors.newFixedThreadPool(SEARCH_THREADS, 
+					new ThreadFactory() {
+						private int count = 0;
+
+						@Override
+						public synchronized Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "db-search-" 
+									+ (++count));
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return searchPool;
+	}
+
+	/**
+	 * Returns the Record object with the given record number, from the 
+	 * resident table if it exists or from the file otherwise. It assumes the
+	 * caller holds the latch of the record.
+	 */
+	private Record getStoredRecord(int recNo) throws IOException {
+		Record record = (this.table != null) ? this.table.get(recNo) : null;
+		return (record != null) ? record 
+								: getRecord(calculatePosition(recNo));
+	}
+
+	/**
+	 * Updates the in-memory structures after the record with the given number
+	 * was written to the file with the given bytes. The record is written 
+	 * through to the resident table and the primary key index is changed 
+	 * from the key of the record {@code before} the change to the key of the
+	 * written record. It assumes the caller holds the write latch of the 
+	 * record.
+	 */
+	private void recordWritten(int recNo, Record before, byte[] written) {
+		Record after = this.codec.decode(written, 0);
+		if (this.table != null) {
+			this.table.put(recNo, after);
+		}
+		synchronized (this.keyIndex) {
+			if (before != null && !before.isDeleted()) {
+				this.keyIndex.remove(before.getPrimaryKey(), recNo);
+			}
+			if (!after.isDeleted()) {
+				this.keyIndex.add(after.getPrimaryKey(), recNo);
+			}
+		}
+		if (this.prefixIndex != null) {
+			this.prefixIndex.update(recNo, before, after);
+		}
+	}
+
+	/**
+	 * Returns the numbers of the given array sorted in ascending order, 
+	 * without repeated numbers.
+	 */
+	private static int[] sortedSet(int[] numbers) {
+		int[] sorted = numbers.clone();
+		Arrays.sort(sorted);
+		int count = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (count == 0 || sorted[count - 1] != sorted[i]) {
+				sorted[count++] = sorted[i];
+			}
+		}
+		return Arrays.copyOf(sorted, count);
+	}
+
+	/**
+	 * Returns the numbers in either of the given arrays, both sorted in 
+	 * ascending order, without repeated numbers and in ascending order.
+	 */
+	private static int[] merge(int[] first, int[] second) {
+		if (second.length == 0) {
+			return first;
+		}
+		int[] merged = new int[first.length + second.length];
+		int i = 0, j = 0, count = 0;
+		while (i < first.length || j < second.length) {
+			int next;
+			if (j == second.length 
+					|| (i < first.length && first[i] <= second[j])) {
+				next = first[i++];
+			} else {
+				next = second[j++];
+			}
+			if (count == 0 || merged[count - 1] != next) {
+				merged[count++] = next;
+			}
+		}
+		return Arrays.copyOf(merged, count);
+	}
+
+	/**
+	 * Returns the record numbers which may match the given criteria using 
+	 * the primary key index, or {@code null} if the index cannot be used. <p>
+	 * 
+	 * The index is used when the criteria has all the elements of the 
+	 * primary key with the full width of their fields, since in that case
+	 * a field only begins with the criteria if it is equal to it. The
+	 * returned records must still be matched against the criteria.
+	 */
+	private int[] findKeyCandidates(String[] criteria) {
+		for (int keyIndex : KEY_INDICES) {
+			String value = criteria[keyIndex];
+			int size = this.schema.getColumnSize(keyIndex);
+			if (value == null || value.length() != size) {
+				return null;
+			}
+		}
+		return this.keyIndex.get(new Record(criteria).getPrimaryKey());
+	}
+
+	/**
+	 * Reads all the records of the database, setting their state in the 
+	 * record bitmap and adding them to the resident table and to the
+	 * indexes. Large files are split in ranges read by the search threads, 
+	 * while the indexes are filled by this thread in the order of the 
+	 * records.
+	 */
+	private void loadRecords(int count) throws IOException {
+		if (count < PARALLEL_THRESHOLD || SEARCH_THREADS < 2) {
+			indexRecords(0, count);
+			return;
+		}
+
+		int rangeSize = Math.max(SCAN_BLOCK_SIZE, 
+				count / (SEARCH_THREADS * 4));
+		List<Callable<Record[]>> tasks = new ArrayList<Callable<Record[]>>();
+		for (int from = 0; from < count; from += rangeSize) {
+			final int first = from;
+			final int last = Math.min(count, from + rangeSize);
+			tasks.add(new Callable<Record[]>() {
+				@Override
+				public Record[] call() throws IOException {
+					return loadRecords(first, last);
+				}
+			});
+		}
+
+		try {
+			int recNo = 0;
+			for (Future<Record[]> result : getSearchPool().invokeAll(tasks)) {
+				Record[] range = result.get();
+				indexRecords(recNo, range);
+				recNo += range.length;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Loading interrupted.");
+		} catch (ExecutionException e) {
+			throw new IOException("Loading failed: " 
+					+ e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	/**
+	 * Reads the records from the first to {@code to} (exclusive) and adds 
+	 * them to the indexes, one block at a time.
+	 */
+	private void indexRecords(int from, int to) throws IOException {
+		for (int first = from; first < to; first += SCAN_BLOCK_SIZE) {
+			int last = Math.min(to, first + SCAN_BLOCK_SIZE);
+			indexRecords(first, loadRecords(first, last));
+		}
+	}
+
+	/**
+	 * Adds the loaded records, starting with the given record number, to 
+	 * the primary key index and to the prefix index. 
+	 */
+	private void indexRecords(int from, Record[] range) {
+		for (int i = 0; i < range.length; i++) {
+			Record record = range[i];
+			if (!record.isDeleted()) {
+				this.keyIndex.add(record.getPrimaryKey(), from + i);
+			}
+			if (this.prefixIndex != null) {
+				this.prefixIndex.update(from + i, null, record);
+			}
+		}
+	}
+
+	/**
+	 * Reads the records from the first to {@code to} (exclusive) in blocks,
+	 * setting their state in the record bitmap and adding them to the 
+	 * resident table. Only the deleted flag and the fields of the primary 
+	 * key are decoded, unless the resident table or the prefix index need 
+	 * the full record.
+	 */
+	private Record[] loadRecords(int from, int to) throws IOException {
+		int recordLength = this.schema.getRecordSize() + 1;
+		boolean isDecoded = this.table != null || this.prefixIndex != null;
+		byte[] block = new byte[recordLength * SCAN_BLOCK_SIZE];
+		Record[] range = new Record[to - from];
+
+		for (int first = from; first < to; first += SCAN_BLOCK_SIZE) {
+			int count = Math.min(SCAN_BLOCK_SIZE, to - first);
+			this.database.read(calculatePosition(first), block, 0, 
+					count * recordLength);
+			for (int i = 0; i < count; i++) {
+				int recNo = first + i;
+				int offset = i * recordLength;
+				Record record = isDecoded ? this.codec.decode(block, offset) 
+										  : this.codec.decodeKey(block, offset);
+				if (record.isDeleted()) {
+					this.records.release(recNo);
+				} else {
+					this.records.setLive(recNo);
+				}
+				if (this.table != null) {
+					this.table.put(recNo, record);
+				}
+				range[recNo - from] = record;
+			}
+		}
+		return range;
+	}
+
+	/**
+	 * Calculates the number of bytes to get to the given record number.
+	 */
+	private long calculatePosition(int recNo) {	
+		int totalRecordSize = this.schema.getRecordSize() + 1;
+		return this.dataOffset + ((long) recNo * totalRecordSize);
+	}   
+
+	/**
+	 * Calculates the record number for the given position in number of bytes.
+	 */
+	private int calculateRecordNumber(long position) {
+		int totalRecordSize = this.schema.getRecordSize() + 1;	
+		int recNo = (int) ((position - this.dataOffset) / totalRecordSize);			
+		return recNo;
+	}   	
+
+	/**
+	 * The records that matched a search, in the order they were found, with
+	 * their fields if they were requested. The first matches may be skipped
+	 * and the number of matches may be limited, for a page of the results.
+	 */
+	private class Matches {
+
+		/**
+		 * The numbers of the records.
+		 */
+		private List<Integer> recNos = new ArrayList<Integer>();
+
+		/**
+		 * The fields of each record, or {@code null} if the fields were not
+		 * requested.
+		 */
+		private List<String[]> fields;
+
+		/**
+		 * The snapshot where the records are matched.
+		 */
+		private long snapshot = RecordVersions.CURRENT;
+
+		/**
+		 * The number of matches still to skip.
+		 */
+		private int skip;
+
+		/**
+		 * The maximum number of matches.
+		 */
+		private int limit;
+
+		/**
+		 * Creates an empty list of matches, which keeps the fields of the
+		 * records if {@code withFields} is true. The first {@code skip} 
+		 * matches are not kept and at most {@code limit} matches are kept.
+		 */
+		private Matches(boolean withFields, int skip, int limit) {
+			if (withFields) {
+				this.fields = new ArrayList<String[]>();
+			}
+			this.skip = skip;
+			this.limit = limit;
+		}
+
+		/**
+		 * Returns true if the number of matches is limited.
+		 */
+		private boolean isLimited() {
+			return this.skip > 0 || this.limit < Integer.MAX_VALUE;
+		}
+
+		/**
+		 * Returns true if no more matches can be kept.
+		 */
+		private boolean isFull() {
+			return this.recNos.size() >= this.limit;
+		}
+
+		/**
+		 * Returns true if the match must be skipped, counting it.
+		 */
+		private boolean isSkipped() {
+			if (this.skip > 0) {
+				this.skip--;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Adds a record that matched. Records may be shared with the 
+		 * resident table, so a copy of its fields is kept.
+		 */
+		private void add(int recNo, Record record) {
+			if (isSkipped()) {
+				return;
+			}
+			this.recNos.add(recNo);
+			if (this.fields != null) {
+				this.fields.add(record.getStringArray().clone());
+			}
+		}
+
+		/**
+		 * Adds a record that matched, decoding its fields from the given 
+		 * bytes.
+		 */
+		private void add(int recNo, byte[] recordArray) {
+			if (isSkipped()) {
+				return;
+			}
+			this.recNos.add(recNo);
+			if (this.fields != null) {
+				this.fields.add(Data.this.codec.decode(recordArray, 0)
+						.getStringArray());
+			}
+		}
+
+		/**
+		 * Adds all the given matches after the existing ones.
+		 */
+		private void addAll(Matches matches) {
+			this.recNos.addAll(matches.recNos);
+			if (this.fields != null) {
+				this.fields.addAll(matches.fields);
+			}
+		}
+
+		/**
+		 * Returns the fields of the matches by record number.
+		 */
+		private SortedMap<Integer, String[]> toMap() {
+			SortedMap<Integer, String[]> map = 
+					new TreeMap<Integer, String[]>();
+			for (int i = 0; i < this.recNos.size(); i++) {
+				map.put(this.recNos.get(i), this.fields.get(i));
+			}
+			return map;
+		}
+	}
+}
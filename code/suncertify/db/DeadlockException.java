@@ -0,0 +1,47 @@
+/*
+ * DeadlockException.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+
+/**
+ * Thrown when a client would wait for a record lock forever, because the
+ * clients holding it wait, directly or through other clients, for the 
+ * locks held by that client. The client should unlock the records it 
+ * holds and try again. <p>
+ * 
+ * It is an unchecked exception, since the lock methods of the {@code DB}
+ * interface cannot throw other checked exceptions.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see RuntimeException
+ * @see DB#lock(int)
+ */
+public class DeadlockException extends RuntimeException {
+	
+	/**
+	 * Default serial version UID. 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a {@code DeadlockException} with no detail message.
+	 */
+	public DeadlockException() {
+		super();
+	}
+
+	/**
+	 * Constructs a {@code DeadlockException} with the specified detail 
+	 * message.
+	 * 
+	 * @param msg the detail message.
+	 */
+	public DeadlockException(String msg) {
+		super(msg);
+	}	
+}
@@ -0,0 +1,224 @@
+/*
+ * ExtendedDB.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.util.SortedMap;
+
+
+/**
+ * An extension of the {@code DB} interface with the operations that serve
+ * several records in a single call, so a client connected through the
+ * network does not need a remote call for each record. <p>
+ * 
+ * The {@code DB} interface provided by <tt>Sun</tt> is kept unchanged.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.8
+ * @see ResultPage
+ * @see VersionedRecord
+ * @see DB
+ */
+public interface ExtendedDB extends DB {
+
+	/**
+	 * Reads the records with the given numbers in a single pass. Element n
+	 * of the returned array has the fields of the record recNos[n], or is
+	 * <tt>null</tt> if that record does not exist or is deleted.
+	 * 
+	 * @param recNos the record numbers to retrieve from the database.
+	 * @return an array with a {@code String} array for each record number,
+	 * in the same order.
+	 */
+	public String[][] readMany(int[] recNos);
+
+	/**
+	 * Returns the records that match the specified criteria, with their
+	 * fields, in a single pass over the database. The criteria are 
+	 * evaluated as in {@link DB#find(String[])}, and each record is matched
+	 * and returned from the same read, so a record in the result is never
+	 * one deleted or changed after it was matched.
+	 * 
+	 * @param criteria a array of strings with the patterns that must be
+	 * matched in the search performed.
+	 * @return the fields of the matching records by record number.
+	 */
+	public SortedMap<Integer, String[]> findRecords(String[] criteria);
+
+	/**
+	 * Returns a page of the records that match the specified criteria, with
+	 * their fields. The search starts at the position of the given token,
+	 * skips the first {@code offset} matches and stops as soon as the page
+	 * has {@code limit} records, so the matches after the page are never
+	 * searched. The next page is returned by a call with the token of the
+	 * returned page.
+	 * 
+	 * @param criteria a array of strings with the patterns that must be
+	 * matched in the search performed.
+	 * @param token {@link ResultPage#FIRST} or the token of the previous 
+	 * page.
+	 * @param offset the number of matches to skip.
+	 * @param limit the maximum number of records of the page.
+	 * @return the page with the matching records and the token of the next
+	 * page.
+	 * @throws IllegalArgumentException if the token is not valid, if the 
+	 * offset is negative or if the limit is not positive.
+	 */
+	public ResultPage findPage(String[] criteria, long token, int offset, 
+			int limit);
+
+	/**
+	 * Books the record with the given primary key for the customer, only if
+	 * the record is still available. The record is checked and updated 
+	 * holding its lock, in a single operation.
+	 * 
+	 * @param key an array with the elements of the primary key of the 
+	 * record; the other elements are ignored.
+	 * @param customerId the customer who books the record.
+	 * @return <tt>true</tt> if the record was booked, or <tt>false</tt> if 
+	 * it was already booked.
+	 * @throws RecordNotFoundException if there is no record with the given
+	 * primary key.
+	 * @throws DuplicateKeyException if there is more than one record with
+	 * the given primary key.
+	 */
+	public boolean bookIfAvailable(String[] key, String customerId) 
+			throws RecordNotFoundException, DuplicateKeyException;
+
+	/**
+	 * Makes the record with the given primary key available again, only if
+	 * it is still booked by the customer. The record is checked and updated
+	 * holding its lock, in a single operation.
+	 * 
+	 * @param key an array with the elements of the primary key of the 
+	 * record; the other elements are ignored.
+	 * @param customerId the customer who booked the record.
+	 * @return <tt>true</tt> if the record was returned, or <tt>false</tt> if
+	 * it is not booked by the customer.
+	 * @throws RecordNotFoundException if there is no record with the given
+	 * primary key.
+	 * @throws DuplicateKeyException if there is more than one record with
+	 * the given primary key.
+	 */
+	public boolean returnIfOwned(String[] key, String customerId) 
+			throws RecordNotFoundException, DuplicateKeyException;
+
+	/**
+	 * Books all the given records for the customer, only if all of them are
+	 * still available, in a single operation. The records are locked in 
+	 * ascending order of their numbers, so two bookings never deadlock each
+	 * other, and either all or none of them are booked. Only with the 
+	 * write-ahead log (<tt>db.wal</tt>) are they updated with a single 
+	 * write, so that it still holds after a system crash; without it a 
+	 * crash, or a failed write, may leave only some of them booked.
+	 * 
+	 * @param recNos the record numbers to book.
+	 * @param customerId the customer who books the records.
+	 * @return <tt>true</tt> if the records were booked, or <tt>false</tt> if
+	 * any of them was already booked, in which case none is booked.
+	 * @throws RecordNotFoundException if any of the record numbers does not
+	 * exist in the database.
+	 */
+	public boolean bookRecords(int[] recNos, String customerId) 
+			throws RecordNotFoundException;
+
+	/**
+	 * Reads a record together with its version. The version changes every
+	 * time the record is changed.
+	 * 
+	 * @param recNo the record number to retrieve from the database.
+	 * @return the fields and the version of the record.
+	 * @throws RecordNotFoundException if the specified record 
+	 * number does not exist in the database.
+	 */
+	public VersionedRecord readVersioned(int recNo) 
+			throws RecordNotFoundException;
+
+	/**
+	 * Modifies the fields of a record without locking it, only if the
+	 * record still has the given version and is not locked. The new value
+	 * for field n appears in data[n]. <p>
+	 * 
+	 * The lock cookies of {@link DB#update(int, String[], long)} keep 
+	 * working; a record locked with them is never changed by this method.
+	 * 
+	 * @param recNo the record number to update in the database.
+	 * @param data a {@code String} array with the new data of the given
+	 * record. 
+	 * @param expectedVersion the version of the record when it was read.
+	 * @return the new version of the record.
+	 * @throws RecordNotFoundException if the specified record 
+	 * number does not exist in the database. 
+	 * @throws VersionConflictException if the record was changed after it
+	 * was read or is locked.
+	 */
+	public long updateIfVersion(int recNo, String[] data, 
+			long expectedVersion) throws RecordNotFoundException, 
+			VersionConflictException;
+
+	/**
+	 * Locks a record as {@link DB#lock(int)}, but waits at most the given
+	 * time while the record is locked by another client.
+	 * 
+	 * @param recNo the record number to lock in the database.
+	 * @param timeout the maximum time to wait, in milliseconds.
+	 * @return the cookie value generated by the locking mechanism, or zero
+	 * if the record was not locked within the timeout.
+	 * @throws RecordNotFoundException if the specified record 
+	 * number does not exist in the database. 
+	 */
+	public long tryLock(int recNo, long timeout) 
+			throws RecordNotFoundException;
+
+	/**
+	 * Renews the lease of a lock, so it does not expire. A lock not used
+	 * for longer than its lease, either to renew it or to update or delete
+	 * its record, expires and is released.
+	 * 
+	 * @param recNo the record number of the lock.
+	 * @param lockCookie the cookie of the lock.
+	 * @throws RecordNotFoundException if the record is not locked, or if 
+	 * the lock expired.
+	 * @throws SecurityException if {@code lockCookie} is not the cookie value
+	 * that holds the lock for the given record number.
+	 */
+	public void renewLock(int recNo, long lockCookie) 
+			throws RecordNotFoundException, SecurityException;
+
+	/**
+	 * Locks a record in shared mode, so it cannot be updated or deleted
+	 * while the client reads it. Any number of clients may hold a shared 
+	 * lock of the same record, but not while another client holds or waits
+	 * for the lock in exclusive mode, as given by {@link DB#lock(int)}. The
+	 * returned cookie must be used when the record is unlocked, and cannot
+	 * be used to update or delete the record before the lock is upgraded.
+	 * 
+	 * @param recNo the record number to lock in the database.
+	 * @return the cookie value generated by the locking mechanism.
+	 * @throws RecordNotFoundException if the specified record 
+	 * number does not exist in the database. 
+	 */
+	public long lockShared(int recNo) throws RecordNotFoundException;
+
+	/**
+	 * Upgrades a shared lock to exclusive mode, keeping its cookie, so the
+	 * record can then be updated or deleted. Waits until the other clients
+	 * release their shared locks of the record. If another client is 
+	 * already waiting to upgrade its lock of the same record, the lock is
+	 * not upgraded, since each client would wait for the other forever; the
+	 * client should then unlock the record.
+	 * 
+	 * @param recNo the record number of the lock.
+	 * @param lockCookie the cookie of the shared lock.
+	 * @return <tt>true</tt> if the lock is now exclusive, or <tt>false</tt>
+	 * if it could not be upgraded.
+	 * @throws RecordNotFoundException if the record is not locked.
+	 * @throws SecurityException if {@code lockCookie} is not the cookie value
+	 * of a lock of the given record number.
+	 */
+	public boolean upgradeLock(int recNo, long lockCookie) 
+			throws RecordNotFoundException, SecurityException;
+}
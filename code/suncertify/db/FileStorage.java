@@ -0,0 +1,68 @@
+/*
+ * FileStorage.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+
+/**
+ * The default {@code Storage} which accesses the database file through a 
+ * {@code RandomAccessFile}. Every access moves the shared file pointer 
+ * before reading or writing, so all the accesses are serialized.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.1
+ * @see Storage
+ * @see RandomAccessFile
+ */
+class FileStorage implements Storage {
+
+	/**
+	 * The reference to access database information.
+	 */
+	private RandomAccessFile file;
+
+	/**
+	 * Opens the file in the given path for reading and writing.
+	 * 
+	 * @param dbPath the path to the database file.
+	 * @throws FileNotFoundException if the database file cannot be located.
+	 */
+	public FileStorage(String dbPath) throws FileNotFoundException {
+		this.file = new RandomAccessFile(dbPath, "rw");
+	}
+
+	@Override
+	public synchronized void read(long position, byte[] buffer, int offset, int length) 
+			throws IOException {
+		this.file.seek(position);
+		this.file.readFully(buffer, offset, length);
+	}
+
+	@Override
+	public synchronized void write(long position, byte[] buffer) throws IOException {
+		this.file.seek(position);
+		this.file.write(buffer);
+	}
+
+	@Override
+	public synchronized long length() throws IOException {
+		return this.file.length();
+	}
+
+	@Override
+	public synchronized void force() throws IOException {
+		this.file.getFD().sync();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		this.file.close();
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * IndexFile.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+
+/**
+ * The file kept next to a database file with the state of the records and
+ * the indexes, so they do not have to be rebuilt every time the database
+ * is opened. The database file itself is never changed. <p>
+ * 
+ * The index file is stamped with the length and the modification time of
+ * the database file and ends with a checksum of the index file itself. It
+ * is only loaded if the stamp matches the database file and the checksum
+ * is correct. The checksum only detects a damaged index file; a database
+ * file changed by another program is detected by its stamp alone. <p>
+ * 
+ * Every change to the database must be announced with {@link #modified()},
+ * before and after it is made. The index file is deleted on the first
+ * change after it is written, and each change increments a version, so an
+ * index file is only written by an instance of {@code Data} which has seen
+ * every change. There is a single {@code IndexFile} object for each
+ * database file, while any instance of {@code Data} of that file is
+ * open.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.2
+ * @see Data
+ */
+class IndexFile {
+
+	/**
+	 * The extension added to the path of the database file.
+	 */
+	private static final String EXTENSION = ".idx";
+
+	/**
+	 * The value which identifies an index file.
+	 */
+	private static final int MAGIC = 0x49445831;
+
+	/**
+	 * The index file objects of each database file, by canonical path.
+	 */
+	private static final Map<String, IndexFile> INDEX_FILES =
+			new HashMap<String, IndexFile>();
+
+	/**
+	 * The database file.
+	 */
+	private File dbFile;
+
+	/**
+	 * The index file.
+	 */
+	private File file;
+
+	/**
+	 * The number of instances of {@code Data} using this object. It is 
+	 * guarded by the monitor of {@code INDEX_FILES}.
+	 */
+	private int users;
+
+	/**
+	 * The number of changes made to the database file.
+	 */
+	private AtomicInteger version = new AtomicInteger();
+
+	/**
+	 * True if the index file may exist, so it must be deleted on the next 
+	 * change.
+	 */
+	private volatile boolean isWritten;
+
+	/**
+	 * True if the index file exists and matches the database file. It is
+	 * guarded by the monitor of this object.
+	 */
+	private boolean isCurrent;
+
+	/**
+	 * Creates the index file object of the given database file.
+	 */
+	private IndexFile(File dbFile) {
+		this.dbFile = dbFile;
+		this.file = new File(dbFile.getPath() + EXTENSION);
+		this.isWritten = this.file.exists();
+	}
+
+	/**
+	 * Returns the index file object of the given database file. Each call
+	 * must be matched by a call to {@link #release()}.
+	 * 
+	 * @param dbPath the path to the database file.
+	 * @return the index file object of the database file.
+	 * @throws IOException if the canonical path cannot be determined.
+	 */
+	public static IndexFile forDatabase(String dbPath) throws IOException {
+		File dbFile = new File(dbPath).getCanonicalFile();
+		synchronized (INDEX_FILES) {
+			IndexFile indexFile = INDEX_FILES.get(dbFile.getPath());
+			if (indexFile == null) {
+				indexFile = new IndexFile(dbFile);
+				INDEX_FILES.put(dbFile.getPath(), indexFile);
+			}
+			indexFile.users++;
+			return indexFile;
+		}
+	}
+
+	/**
+	 * Releases the index file object for an instance of {@code Data} which
+	 * no longer uses it. When the last of them releases it, the next call 
+	 * to {@code forDatabase} creates a new object.
+	 */
+	public void release() {
+		synchronized (INDEX_FILES) {
+			if (--this.users == 0) {
+				INDEX_FILES.remove(this.dbFile.getPath());
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of changes made to the database file.
+	 * 
+	 * @return the current version.
+	 */
+	public int getVersion() {
+		return this.version.get();
+	}
+
+	/**
+	 * Announces a change to the database file, deleting the index file if
+	 * it exists.
+	 * 
+	 * @return the version after the change.
+	 */
+	public int modified() {
+		int current = this.version.incrementAndGet();
+		if (this.isWritten) {
+			synchronized (this) {
+				if (this.isWritten) {
+					this.file.delete();
+					this.isWritten = false;
+					this.isCurrent = false;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Loads the state of the records and the indexes from the index file,
+	 * if it matches the database file. The given objects must be empty,
+	 * except for the records reserved in the bitmap, and may have been
+	 * partially filled if the index file is not loaded.
+	 * 
+	 * @param records the bitmap with the reserved records.
+	 * @param keyIndex the primary key index.
+	 * @param prefixIndex the prefix index, or {@code null} if not used.
+	 * @return <tt>true</tt> if the index file was loaded.
+	 */
+	public synchronized boolean load(RecordBitmap records, KeyIndex keyIndex,
+			PrefixIndex prefixIndex) {
+		if (!this.file.exists()) {
+			return false;
+		}
+		try {
+			BufferedInputStream buffered = new BufferedInputStream(
+					new FileInputStream(this.file));
+			try {
+				CheckedInputStream checked = new CheckedInputStream(buffered,
+						new CRC32());
+				DataInputStream in = new DataInputStream(checked);
+				if (in.readInt() != MAGIC
+						|| in.readLong() != this.dbFile.length()
+						|| in.readLong() != this.dbFile.lastModified()
+						|| in.readInt() != records.size()
+						|| in.readBoolean() != (prefixIndex != null)) {
+					return false;
+				}
+				records.readFrom(in);
+				keyIndex.readFrom(in);
+				if (prefixIndex != null) {
+					prefixIndex.readFrom(in);
+				}
+
+				// The checksum is not part of the checked contents.
+				long checksum = checked.getChecksum().getValue();
+				this.isCurrent = 
+						new DataInputStream(buffered).readLong() == checksum
+						&& buffered.read() == -1;
+				return this.isCurrent;
+			} finally {
+				buffered.close();
+			}
+		} catch (IOException e) {
+			return false;
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the state of the records and the indexes to the index file,
+	 * stamped with the current length and modification time of the
+	 * database file. Nothing is written if the index file already exists or
+	 * if the database has changes unknown to the caller. The index file is
+	 * deleted if a change is made while it is written.
+	 * 
+	 * @param expectedVersion the version after the last change seen by the
+	 * caller.
+	 * @param records the state of the records.
+	 * @param keyIndex the primary key index.
+	 * @param prefixIndex the prefix index, or {@code null} if not used.
+	 * @throws IOException if the index file cannot be written.
+	 */
+	public synchronized void save(int expectedVersion, RecordBitmap records,
+			KeyIndex keyIndex, PrefixIndex prefixIndex) throws IOException {
+		if (this.isCurrent || this.version.get() != expectedVersion) {
+			return;
+		}
+
+		// Changes made from now on delete the file.
+		this.isWritten = true;
+		File temporary = new File(this.file.getPath() + ".tmp");
+		try {
+			CheckedOutputStream checked = new CheckedOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temporary)),
+					new CRC32());
+			DataOutputStream out = new DataOutputStream(checked);
+			try {
+				out.writeInt(MAGIC);
+				out.writeLong(this.dbFile.length());
+				out.writeLong(this.dbFile.lastModified());
+				out.writeInt(records.size());
+				out.writeBoolean(prefixIndex != null);
+				records.writeTo(out);
+				keyIndex.writeTo(out);
+				if (prefixIndex != null) {
+					prefixIndex.writeTo(out);
+				}
+				out.writeLong(checked.getChecksum().getValue());
+			} finally {
+				out.close();
+			}
+			this.file.delete();
+			if (!temporary.renameTo(this.file)) {
+				throw new IOException("Cannot write " + this.file);
+			}
+		} catch (IOException e) {
+			temporary.delete();
+			this.isWritten = false;
+			throw e;
+		}
+		if (this.version.get() != expectedVersion) {
+			this.file.delete();
+			this.isWritten = false;
+		} else {
+			this.isCurrent = true;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * KeyIndex.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+/**
+ * An in-memory unique index which maps the primary key of each record that
+ * is not deleted to its record number. The keys are the values returned by
+ * {@link Record#getPrimaryKey()}. <p>
+ * 
+ * The database file does not enforce the primary key, so the index is able
+ * to hold more than one record number for the same key. Those keys are 
+ * kept apart and are expected to be rare. <p>
+ * 
+ * All methods are synchronized. Callers that need to check and change the
+ * index atomically must hold the monitor of the index.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.1
+ * @see Record
+ * @see Data
+ */
+class KeyIndex {
+
+	/**
+	 * The record numbers of the keys used by a single record.
+	 */
+	private Map<String, Integer> uniqueKeys = new HashMap<String, Integer>();
+
+	/**
+	 * The record numbers of the keys shared by more than one record.
+	 */
+	private Map<String, Set<Integer>> duplicateKeys = 
+			new HashMap<String, Set<Integer>>();
+
+	/**
+	 * Returns <tt>true</tt> if a record with the given key exists.
+	 * 
+	 * @param key the primary key to look for.
+	 * @return <tt>true</tt> if the key exists and <tt>false</tt> otherwise.
+	 */
+	public synchronized boolean contains(String key) {
+		return this.uniqueKeys.containsKey(key) 
+				|| this.duplicateKeys.containsKey(key);
+	}
+
+	/**
+	 * Returns the record numbers of the records with the given key, in 
+	 * ascending order.
+	 * 
+	 * @param key the primary key to look for.
+	 * @return an array with the record numbers, empty if the key does not
+	 * exist.
+	 */
+	public synchronized int[] get(String key) {
+		Integer recNo = this.uniqueKeys.get(key);
+		if (recNo != null) {
+			return new int[] {recNo};
+		}
+		Set<Integer> recNumbers = this.duplicateKeys.get(key);
+		if (recNumbers == null) {
+			return new int[0];
+		}
+		int[] array = new int[recNumbers.size()];
+		int i = 0;
+		for (int number : recNumbers) {
+			array[i++] = number;
+		}
+		return array;
+	}
+
+	/**
+	 * Adds the given key for the given record number. Nothing changes if 
+	 * the key is already mapped to that record.
+	 * 
+	 * @param key the primary key of the record.
+	 * @param recNo the record number.
+	 */
+	public synchronized void add(String key, int recNo) {
+		Set<Integer> recNumbers = this.duplicateKeys.get(key);
+		if (recNumbers != null) {
+			recNumbers.add(recNo);
+			return;
+		}
+		Integer previous = this.uniqueKeys.put(key, recNo);
+		if (previous != null && previous != recNo) {
+			this.uniqueKeys.remove(key);
+			recNumbers = new TreeSet<Integer>();
+			recNumbers.add(previous);
+			recNumbers.add(recNo);
+			this.duplicateKeys.put(key, recNumbers);
+		}
+	}
+
+	/**
+	 * Removes the given key for the given record number. Nothing changes
+	 * if the key is not mapped to that record.
+	 * 
+	 * @param key the primary key of the record.
+	 * @param recNo the record number.
+	 */
+	public synchronized void remove(String key, int recNo) {
+		Integer current = this.uniqueKeys.get(key);
+		if (current != null) {
+			if (current == recNo) {
+				this.uniqueKeys.remove(key);
+			}
+			return;
+		}
+		Set<Integer> recNumbers = this.duplicateKeys.get(key);
+		if (recNumbers != null && recNumbers.remove(recNo)) {
+			if (recNumbers.size() == 1) {
+				this.duplicateKeys.remove(key);
+				this.uniqueKeys.put(key, recNumbers.iterator().next());
+			}
+		}
+	}
+
+	/**
+	 * Writes all the keys and their record numbers to the given output.
+	 * 
+	 * @param out the output where the index is written.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public synchronized void writeTo(DataOutput out) throws IOException {
+		out.writeInt(this.uniqueKeys.size());
+		for (Map.Entry<String, Integer> entry : this.uniqueKeys.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeInt(entry.getValue());
+		}
+		out.writeInt(this.duplicateKeys.size());
+		for (Map.Entry<String, Set<Integer>> entry 
+				: this.duplicateKeys.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeInt(entry.getValue().size());
+			for (int recNo : entry.getValue()) {
+				out.writeInt(recNo);
+			}
+		}
+	}
+
+	/**
+	 * Adds to the index the keys written by {@link #writeTo(DataOutput)}.
+	 * 
+	 * @param in the input from where the index is read.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public synchronized void readFrom(DataInput in) throws IOException {
+		for (int i = in.readInt(); i > 0; i--) {
+			add(in.readUTF(), in.readInt());
+		}
+		for (int i = in.readInt(); i > 0; i--) {
+			String key = in.readUTF();
+			for (int j = in.readInt(); j > 0; j--) {
+				add(key, in.readInt());
+			}
+		}
+	}
+}
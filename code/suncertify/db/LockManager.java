@@ -0,0 +1,822 @@
+/*
+ * LockManager.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.security.SecureRandom;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * The logical record locks of the {@code DB} interface. Each locked record
+ * has its own entry, with the cookies of the clients holding the lock and a
+ * queue of the clients waiting for it, so locking a record never contends
+ * with the locks of the other records. <p>
+ * 
+ * A record is locked either by a single client in exclusive mode, or by
+ * any number of clients in shared mode, which pin the record so it is not
+ * changed while they read it. A client holding a shared lock may upgrade
+ * it to exclusive, waiting for the other shared locks to be released. <p>
+ * 
+ * When a lock is released it is handed over directly to the clients
+ * waiting for the longest time, which are the only ones woken up: either
+ * the next exclusive waiter, or all the shared waiters before the next
+ * exclusive one. A shared lock is never granted ahead of an exclusive
+ * waiter, so writers are never starved by readers. Cookies are generated
+ * by a secure random number generator, so a client can never guess the
+ * cookie of another one. The entry of a record only exists while the
+ * record is locked. <p>
+ * 
+ * Locks may be leased: a lock not used for longer than the lease, either to
+ * renew it or to change its record, expires and is handed over as if it was
+ * unlocked, so a client that dies never keeps a record locked. The expired
+ * locks are released by a timer thread. <p>
+ * 
+ * Each lock is taken on behalf of an owner, the client which will use and
+ * release it: the session of a remote client, whose calls may run in any
+ * thread, or otherwise the calling thread. The owners waiting for locks
+ * and the owners of the locks they wait for form a wait-for graph. Each
+ * time an owner starts waiting, even with a timeout, the graph is searched
+ * for a cycle back to it, which is a deadlock since none of its owners
+ * would ever be woken up. The owner which closed the cycle, the youngest
+ * waiter in it, then stops waiting with a {@link DeadlockException}.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.4
+ * @see Data
+ */
+class LockManager {
+
+	/**
+	 * The value that is never used as a cookie.
+	 */
+	public static final long NO_COOKIE = 0;
+
+	/**
+	 * The shortest interval between two releases of the expired locks, in
+	 * milliseconds.
+	 */
+	private static final long MIN_REAPER_INTERVAL = 10;
+
+	/**
+	 * The lock entries of the locked records.
+	 */
+	private ConcurrentMap<Integer, Entry> entries =
+			new ConcurrentHashMap<Integer, Entry>();
+
+	/**
+	 * The waiters of each owner waiting for locks, the edges of the
+	 * wait-for graph. It is guarded by its own monitor.
+	 */
+	private Map<Object, List<Waiter>> waiting =
+			new HashMap<Object, List<Waiter>>();
+
+	/**
+	 * The generator of cookies of each thread, so threads never contend
+	 * for a single generator.
+	 */
+	private ThreadLocal<SecureRandom> generators =
+			new ThreadLocal<SecureRandom>() {
+		@Override
+		protected SecureRandom initialValue() {
+			return new SecureRandom();
+		}
+	};
+
+	/**
+	 * The lease of the locks in nanoseconds, or zero if they never expire.
+	 */
+	private long lease;
+
+	/**
+	 * The timer which releases the expired locks, or {@code null} if they
+	 * never expire.
+	 */
+	private Timer reaper;
+
+	/**
+	 * Creates a lock manager with the given lease.
+	 * 
+	 * @param lease the time, in milliseconds, after which a lock not used
+	 * expires, or zero if the locks never expire.
+	 */
+	public LockManager(long lease) {
+		this.lease = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lease));
+		if (lease > 0) {
+			long interval = Math.max(MIN_REAPER_INTERVAL, lease / 4);
+			this.reaper = new Timer("db-lock-reaper", true);
+			this.reaper.schedule(new TimerTask() {
+				@Override
+				public void run() {
+					expire();
+				}
+			}, interval, interval);
+		}
+	}
+
+	/**
+	 * Locks the record with the given number in exclusive mode, waiting
+	 * without consuming CPU cycles while it is locked by other clients. A
+	 * thread interrupted while waiting keeps waiting, with its interrupt
+	 * status set.
+	 * 
+	 * @param recNo the record number.
+	 * @param owner the owner of the lock.
+	 * @return the cookie of the lock.
+	 * @throws DeadlockException if waiting would close a deadlock.
+	 */
+	public long lock(int recNo, Object owner) {
+		return acquire(recNo, owner, false, false, 0);
+	}
+
+	/**
+	 * Locks the record with the given number in shared mode, waiting
+	 * without consuming CPU cycles while it is locked in exclusive mode or
+	 * an exclusive lock is waited for.
+	 * 
+	 * @param recNo the record number.
+	 * @param owner the owner of the lock.
+	 * @return the cookie of the lock.
+	 * @throws DeadlockException if waiting would close a deadlock.
+	 */
+	public long lockShared(int recNo, Object owner) {
+		return acquire(recNo, owner, true, false, 0);
+	}
+
+	/**
+	 * Locks the record with the given number in exclusive mode, waiting at
+	 * most the given time while it is locked by other clients.
+	 * 
+	 * @param recNo the record number.
+	 * @param owner the owner of the lock.
+	 * @param timeout the maximum time to wait, in milliseconds.
+	 * @return the cookie of the lock, or {@link #NO_COOKIE} if the record
+	 * was not locked within the timeout.
+	 * @throws DeadlockException if waiting would close a deadlock.
+	 */
+	public long tryLock(int recNo, Object owner, long timeout) {
+		return acquire(recNo, owner, false, true, System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeout)));
+	}
+
+	/**
+	 * Upgrades a shared lock of the record with the given number to
+	 * exclusive mode, keeping its cookie. Waits, ahead of any other client,
+	 * until the other shared locks are released. Only one client may wait
+	 * to upgrade its lock at a time, since two clients waiting for each
+	 * other's shared lock would wait forever.
+	 * 
+	 * @param recNo the record number.
+	 * @param cookie the cookie of the shared lock.
+	 * @param owner the owner of the shared lock.
+	 * @return <tt>true</tt> if the lock is now exclusive, or <tt>false</tt>
+	 * if another client is upgrading its lock of the record, or if the lock
+	 * was released while waiting.
+	 * @throws RecordNotFoundException if the record is not locked.
+	 * @throws SecurityException if the cookie is not one of the lock.
+	 * @throws DeadlockException if waiting would close a deadlock, in which
+	 * case the lock stays shared.
+	 */
+	public boolean upgrade(int recNo, long cookie, Object owner)
+			throws RecordNotFoundException {
+		Entry entry = this.entries.get(recNo);
+		if (entry == null) {
+			throw new RecordNotFoundException();
+		}
+		Waiter waiter;
+		synchronized (entry) {
+			if (entry.isRemoved) {
+				throw new RecordNotFoundException();
+			} else if (!entry.holders.containsKey(cookie)) {
+				throw new SecurityException();
+			} else if (entry.isExclusive) {
+				return true;
+			} else if (entry.isUpgrading()) {
+				return false;
+			}
+			entry.holders.get(cookie).expiry = System.nanoTime() + this.lease;
+			if (entry.holders.size() == 1) {
+				entry.isExclusive = true;
+				return true;
+			}
+			waiter = new Waiter(recNo, entry, owner, false, cookie);
+			entry.waiters.addFirst(waiter);
+		}
+		startWaiting(waiter);
+		try {
+			checkDeadlock(waiter);
+			return waiter.await() != NO_COOKIE;
+		} finally {
+			stopWaiting(waiter);
+		}
+	}
+
+	/**
+	 * Unlocks the record with the given number, handing the lock over to
+	 * the next clients waiting for it, if any.
+	 * 
+	 * @param recNo the record number.
+	 * @param cookie the cookie of the lock.
+	 * @throws RecordNotFoundException if the record is not locked.
+	 * @throws SecurityException if the cookie is not one of the lock.
+	 */
+	public void unlock(int recNo, long cookie) throws RecordNotFoundException {
+		Entry entry = this.entries.get(recNo);
+		if (entry == null) {
+			throw new RecordNotFoundException();
+		}
+		synchronized (entry) {
+			if (entry.isRemoved) {
+				throw new RecordNotFoundException();
+			} else if (entry.holders.remove(cookie) == null) {
+				throw new SecurityException();
+			}
+			handOver(recNo, entry);
+		}
+	}
+
+	/**
+	 * Renews the lease of the lock of the record with the given number, if
+	 * it is locked with the given cookie.
+	 * 
+	 * @param recNo the record number.
+	 * @param cookie the cookie to check.
+	 * @param isExclusive true if the lock must be in exclusive mode.
+	 * @return <tt>true</tt> if the cookie is one of the lock, in exclusive
+	 * mode if {@code isExclusive}.
+	 */
+	public boolean renew(int recNo, long cookie, boolean isExclusive) {
+		Entry entry = this.entries.get(recNo);
+		if (entry == null) {
+			return false;
+		}
+		synchronized (entry) {
+			Holder holder = entry.holders.get(cookie);
+			if (entry.isRemoved || holder == null
+					|| (isExclusive && !entry.isExclusive)) {
+				return false;
+			}
+			holder.expiry = System.nanoTime() + this.lease;
+			return true;
+		}
+	}
+
+	/**
+	 * Returns true if the record with the given number is locked, in either
+	 * mode.
+	 * 
+	 * @param recNo the record number.
+	 * @return <tt>true</tt> if the record is locked.
+	 */
+	public boolean isLocked(int recNo) {
+		return this.entries.containsKey(recNo);
+	}
+
+	/**
+	 * Returns a description of the chain of locks each waiter waits for:
+	 * the record it waits for, the owners which locked that record and,
+	 * while one of them is also waiting, the record that one waits for, and
+	 * so on.
+	 * 
+	 * @return a line for each waiter.
+	 */
+	public List<String> getWaitChains() {
+		List<Waiter> waiters = new ArrayList<Waiter>();
+		synchronized (this.waiting) {
+			for (List<Waiter> ownerWaiters : this.waiting.values()) {
+				waiters.addAll(ownerWaiters);
+			}
+		}
+		List<String> chains = new ArrayList<String>();
+		for (Waiter first : waiters) {
+			StringBuilder chain = new StringBuilder();
+			Set<Object> visited = new HashSet<Object>();
+			visited.add(first.owner);
+			Waiter waiter = first;
+			while (waiter != null) {
+				List<Object> owners = blockers(waiter);
+				if (chain.length() > 0) {
+					chain.append(", ");
+				}
+				chain.append(describe(waiter, owners));
+				waiter = null;
+				for (Object owner : owners) {
+					List<Waiter> next = waitersOf(owner);
+					if (!next.isEmpty() && visited.add(owner)) {
+						waiter = next.get(0);
+						break;
+					}
+				}
+			}
+			chains.add(chain.toString());
+		}
+		return chains;
+	}
+
+	/**
+	 * Releases the locks not used for longer than the lease, handing them
+	 * over to the next clients waiting for them. A shared lock waiting to
+	 * be upgraded never expires, since its client is still there.
+	 */
+	public void expire() {
+		if (this.lease == 0) {
+			return;
+		}
+		for (Map.Entry<Integer, Entry> mapEntry : this.entries.entrySet()) {
+			Entry entry = mapEntry.getValue();
+			synchronized (entry) {
+				if (entry.isRemoved) {
+					continue;
+				}
+				long now = System.nanoTime();
+				long upgrading = entry.isUpgrading()
+						? entry.waiters.peek().upgrading : NO_COOKIE;
+				List<Long> expired = new ArrayList<Long>();
+				for (Map.Entry<Long, Holder> holder
+						: entry.holders.entrySet()) {
+					if (now - holder.getValue().expiry > 0
+							&& holder.getKey() != upgrading) {
+						expired.add(holder.getKey());
+					}
+				}
+				if (!expired.isEmpty()) {
+					entry.holders.keySet().removeAll(expired);
+					handOver(mapEntry.getKey(), entry);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops releasing the expired locks.
+	 */
+	public void close() {
+		if (this.reaper != null) {
+			this.reaper.cancel();
+		}
+	}
+
+	/**
+	 * Locks the record with the given number in the given mode for the
+	 * owner, waiting until the deadline if {@code isTimed}, or otherwise
+	 * for as long as needed.
+	 */
+	private long acquire(int recNo, Object owner, boolean isShared, 
+			boolean isTimed, long deadline) {
+		while (true) {
+			Entry entry = this.entries.get(recNo);
+			if (entry == null) {
+				long cookie = newCookie();
+				entry = new Entry();
+				entry.holders.put(cookie, new Holder(owner,
+						System.nanoTime() + this.lease));
+				entry.isExclusive = !isShared;
+				if (this.entries.putIfAbsent(recNo, entry) == null) {
+					return cookie;
+				}
+				continue;
+			}
+
+			Waiter waiter = new Waiter(recNo, entry, owner, isShared, 
+					NO_COOKIE);
+			synchronized (entry) {
+
+				// The entry was unlocked and removed after it was found.
+				if (entry.isRemoved) {
+					continue;
+				}
+
+				// Readers join the others unless a writer is waiting.
+				if (isShared && !entry.isExclusive
+						&& entry.waiters.isEmpty()) {
+					long cookie = newCookie();
+					entry.holders.put(cookie, new Holder(owner,
+							System.nanoTime() + this.lease));
+					return cookie;
+				}
+				entry.waiters.addLast(waiter);
+			}
+			startWaiting(waiter);
+			try {
+
+				// A timed wait ends, but the others in the cycle may not.
+				checkDeadlock(waiter);
+				if (!isTimed) {
+					return waiter.await();
+				}
+				waiter.await(deadline);
+				synchronized (entry) {
+
+					// The lock may have been handed over after the timeout.
+					if (!waiter.isGranted) {
+						entry.waiters.remove(waiter);
+						handOver(recNo, entry);
+					}
+					return waiter.cookie;
+				}
+			} finally {
+				stopWaiting(waiter);
+			}
+		}
+	}
+
+	/**
+	 * Hands the lock of the entry over to the next clients waiting for it,
+	 * as long as their mode allows it, and removes the entry if it is no
+	 * longer locked. The caller must hold the monitor of the entry.
+	 */
+	private void handOver(int recNo, Entry entry) {
+		if (entry.holders.isEmpty()) {
+			entry.isExclusive = false;
+		}
+		while (!entry.waiters.isEmpty()) {
+			Waiter next = entry.waiters.peek();
+			if (next.upgrading != NO_COOKIE) {
+				Holder holder = entry.holders.get(next.upgrading);
+				if (holder == null) {
+
+					// The shared lock was released while waiting.
+					entry.waiters.poll();
+					next.grant(NO_COOKIE);
+					continue;
+				} else if (entry.holders.size() > 1) {
+					return;
+				}
+				entry.waiters.poll();
+				holder.expiry = System.nanoTime() + this.lease;
+				entry.isExclusive = true;
+				next.grant(next.upgrading);
+				return;
+			} else if (entry.isExclusive
+					|| (!next.isShared && !entry.holders.isEmpty())) {
+				return;
+			}
+			entry.waiters.poll();
+			long cookie = newCookie();
+			entry.holders.put(cookie, new Holder(next.owner,
+					System.nanoTime() + this.lease));
+			entry.isExclusive = !next.isShared;
+			next.grant(cookie);
+		}
+		if (entry.holders.isEmpty()) {
+			entry.isRemoved = true;
+			this.entries.remove(recNo, entry);
+		}
+	}
+
+	/**
+	 * Searches the wait-for graph for a cycle back to the owner of the
+	 * given waiter, which has just started waiting. If there is one, the
+	 * waiter stops waiting, unless the lock was handed over meanwhile.
+	 */
+	private void checkDeadlock(Waiter waiter) {
+		List<Waiter> cycle = findCycle(waiter, waiter,
+				new ArrayList<Waiter>(), new HashSet<Object>());
+		if (cycle == null) {
+			return;
+		}
+		synchronized (waiter.entry) {
+			if (waiter.isGranted) {
+				return;
+			}
+			waiter.entry.waiters.remove(waiter);
+			handOver(waiter.recNo, waiter.entry);
+		}
+		StringBuilder message = new StringBuilder("Deadlock: ");
+		for (int i = 0; i < cycle.size(); i++) {
+			Waiter next = cycle.get((i + 1) % cycle.size());
+			if (i > 0) {
+				message.append(", ");
+			}
+			List<Object> owner = new ArrayList<Object>();
+			owner.add(next.owner);
+			message.append(describe(cycle.get(i), owner));
+		}
+		throw new DeadlockException(message.toString());
+	}
+
+	/**
+	 * Returns the path of waiters, starting with the given one, in which
+	 * each waits for a lock taken by the owner of the next, and the last
+	 * for a lock taken by the owner of the first. The path is confirmed
+	 * once found, since the locks are read one at a time while they change.
+	 * Returns {@code null} if there is no such path.
+	 */
+	private List<Waiter> findCycle(Waiter first, Waiter waiter,
+			List<Waiter> path, Set<Object> visited) {
+		path.add(waiter);
+		for (Object owner : blockers(waiter)) {
+			if (owner == first.owner) {
+				if (isConfirmed(path)) {
+					return path;
+				}
+				continue;
+			} else if (!visited.add(owner)) {
+				continue;
+			}
+			for (Waiter next : waitersOf(owner)) {
+				List<Waiter> cycle = findCycle(first, next, path, visited);
+				if (cycle != null) {
+					return cycle;
+				}
+			}
+		}
+		path.remove(path.size() - 1);
+		return null;
+	}
+
+	/**
+	 * Returns true if each waiter of the cycle still waits for a lock taken
+	 * by the owner of the next.
+	 */
+	private boolean isConfirmed(List<Waiter> cycle) {
+		for (int i = 0; i < cycle.size(); i++) {
+			Waiter next = cycle.get((i + 1) % cycle.size());
+			if (!blockers(cycle.get(i)).contains(next.owner)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the owners of the locks the waiter waits for, or an empty 
+	 * list if it no longer waits. A lock of the waiting owner itself is 
+	 * left out, since its cookie may be released by another thread of the
+	 * same owner.
+	 */
+	private List<Object> blockers(Waiter waiter) {
+		List<Object> owners = new ArrayList<Object>();
+		synchronized (waiter.entry) {
+			if (waiter.isGranted || waiter.entry.isRemoved) {
+				return owners;
+			}
+			for (Map.Entry<Long, Holder> holder
+					: waiter.entry.holders.entrySet()) {
+				Object owner = holder.getValue().owner;
+				if (holder.getKey() != waiter.upgrading 
+						&& owner != waiter.owner && !owners.contains(owner)) {
+					owners.add(owner);
+				}
+			}
+		}
+		return owners;
+	}
+
+	/**
+	 * Returns a description of the wait of the waiter for the locks taken
+	 * by the given owners.
+	 */
+	private static String describe(Waiter waiter, List<Object> owners) {
+		StringBuilder description = new StringBuilder();
+		description.append(name(waiter.owner))
+				   .append(" waits for record ").append(waiter.recNo)
+				   .append(" locked by ");
+		for (int i = 0; i < owners.size(); i++) {
+			if (i > 0) {
+				description.append(" and ");
+			}
+			description.append(name(owners.get(i)));
+		}
+		return description.toString();
+	}
+
+	/**
+	 * Returns the name of a lock owner: the name of a thread, or the 
+	 * description of any other owner.
+	 */
+	private static String name(Object owner) {
+		if (owner instanceof Thread) {
+			return ((Thread) owner).getName();
+		}
+		return String.valueOf(owner);
+	}
+
+	/**
+	 * Adds the waiter to the edges of the wait-for graph.
+	 */
+	private void startWaiting(Waiter waiter) {
+		synchronized (this.waiting) {
+			List<Waiter> ownerWaiters = this.waiting.get(waiter.owner);
+			if (ownerWaiters == null) {
+				ownerWaiters = new ArrayList<Waiter>(1);
+				this.waiting.put(waiter.owner, ownerWaiters);
+			}
+			ownerWaiters.add(waiter);
+		}
+	}
+
+	/**
+	 * Removes the waiter from the edges of the wait-for graph.
+	 */
+	private void stopWaiting(Waiter waiter) {
+		synchronized (this.waiting) {
+			List<Waiter> ownerWaiters = this.waiting.get(waiter.owner);
+			if (ownerWaiters != null && ownerWaiters.remove(waiter)
+					&& ownerWaiters.isEmpty()) {
+				this.waiting.remove(waiter.owner);
+			}
+		}
+	}
+
+	/**
+	 * Returns the waiters of the given owner, usually one at most.
+	 */
+	private List<Waiter> waitersOf(Object owner) {
+		synchronized (this.waiting) {
+			List<Waiter> ownerWaiters = this.waiting.get(owner);
+			return (ownerWaiters == null) ? new ArrayList<Waiter>(0)
+										  : new ArrayList<Waiter>(ownerWaiters);
+		}
+	}
+
+	/**
+	 * Returns a new random cookie.
+	 */
+	private long newCookie() {
+		long cookie;
+		do {
+			cookie = this.generators.get().nextLong();
+		} while (cookie == NO_COOKIE);
+		return cookie;
+	}
+
+	/**
+	 * The lock of a record. It is guarded by its own monitor.
+	 */
+	private static class Entry {
+
+		/**
+		 * The holders of the lock, by cookie.
+		 */
+		private Map<Long, Holder> holders = new HashMap<Long, Holder>();
+
+		/**
+		 * True if the record is locked in exclusive mode, by a single
+		 * client.
+		 */
+		private boolean isExclusive;
+
+		/**
+		 * The clients waiting for the lock, in arrival order, except for a
+		 * shared lock being upgraded which is always the first.
+		 */
+		private Deque<Waiter> waiters = new LinkedList<Waiter>();
+
+		/**
+		 * True once the record was unlocked with no client waiting, after
+		 * which the entry is no longer used.
+		 */
+		private boolean isRemoved;
+
+		/**
+		 * Returns true if a shared lock is waiting to be upgraded.
+		 */
+		private boolean isUpgrading() {
+			return !this.waiters.isEmpty()
+					&& this.waiters.peek().upgrading != NO_COOKIE;
+		}
+	}
+
+	/**
+	 * A client holding the lock of a record. It is guarded by the monitor
+	 * of the entry of the record.
+	 */
+	private static class Holder {
+
+		/**
+		 * The owner which took the lock, or to which it was handed over.
+		 */
+		private final Object owner;
+
+		/**
+		 * The time, as given by {@code System.nanoTime()}, when the lock
+		 * expires if it is not used.
+		 */
+		private long expiry;
+
+		/**
+		 * Creates a holder of a lock taken by the given owner.
+		 */
+		private Holder(Object owner, long expiry) {
+			this.owner = owner;
+			this.expiry = expiry;
+		}
+	}
+
+	/**
+	 * An owner waiting for the lock of a record in one of its threads.
+	 */
+	private static class Waiter {
+
+		/**
+		 * The waiting thread.
+		 */
+		private final Thread thread = Thread.currentThread();
+
+		/**
+		 * The owner the lock is waited for.
+		 */
+		private final Object owner;
+
+		/**
+		 * The number of the record whose lock is waited for.
+		 */
+		private final int recNo;
+
+		/**
+		 * The entry of the lock waited for.
+		 */
+		private final Entry entry;
+
+		/**
+		 * True if the lock is wanted in shared mode.
+		 */
+		private final boolean isShared;
+
+		/**
+		 * The cookie of the shared lock being upgraded, or
+		 * {@link LockManager#NO_COOKIE} for a new lock.
+		 */
+		private final long upgrading;
+
+		/**
+		 * The cookie of the lock once it is handed over to this waiter.
+		 */
+		private volatile long cookie = NO_COOKIE;
+
+		/**
+		 * True once the wait is over, with the lock handed over or not.
+		 */
+		private volatile boolean isGranted;
+
+		/**
+		 * Creates a waiter of the owner for the lock of the entry in the 
+		 * given mode.
+		 */
+		private Waiter(int recNo, Entry entry, Object owner, 
+				boolean isShared, long upgrading) {
+			this.recNo = recNo;
+			this.entry = entry;
+			this.owner = owner;
+			this.isShared = isShared;
+			this.upgrading = upgrading;
+		}
+
+		/**
+		 * Hands the lock over to the waiting thread and wakes it up.
+		 */
+		private void grant(long grantedCookie) {
+			this.cookie = grantedCookie;
+			this.isGranted = true;
+			LockSupport.unpark(this.thread);
+		}
+
+		/**
+		 * Waits until the lock is handed over, returning its cookie.
+		 */
+		private long await() {
+			boolean isInterrupted = false;
+			while (!this.isGranted) {
+				LockSupport.park(this);
+				if (Thread.interrupted()) {
+					isInterrupted = true;
+				}
+			}
+			if (isInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+			return this.cookie;
+		}
+
+		/**
+		 * Waits until the lock is handed over or the deadline passes. An
+		 * interrupt ends the wait.
+		 */
+		private void await(long deadline) {
+			long remaining = deadline - System.nanoTime();
+			while (!this.isGranted && remaining > 0
+					&& !Thread.currentThread().isInterrupted()) {
+				LockSupport.parkNanos(this, remaining);
+				remaining = deadline - System.nanoTime();
+			}
+		}
+	}
+}
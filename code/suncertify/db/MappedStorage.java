@@ -0,0 +1,138 @@
+/*
+ * MappedStorage.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * A {@code Storage} backed by a memory mapped view of the database file.
+ * Reads are plain memory accesses to the mapped region instead of system
+ * calls. <p>
+ * 
+ * Only the current length of the file is mapped, because mapping beyond
+ * the end of the file would grow it. Writes that extend the file go 
+ * through the channel and the region is mapped again with the new length.
+ * Reads never change the mapped buffer, so they may run concurrently.
+ * Files larger than <tt>2GB</tt> cannot be mapped in a single region and
+ * are rejected.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.1
+ * @see Storage
+ * @see MappedByteBuffer
+ */
+class MappedStorage implements Storage {
+
+	/**
+	 * The file used to obtain the channel.
+	 */
+	private RandomAccessFile file;
+
+	/**
+	 * The channel through which the file is mapped.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * The mapped region of the file, covering its full length.
+	 */
+	private volatile MappedByteBuffer buffer;
+
+	/**
+	 * Opens the file in the given path and maps its full content in memory.
+	 * 
+	 * @param dbPath the path to the database file.
+	 * @throws FileNotFoundException if the database file cannot be located.
+	 * @throws IOException if the file cannot be mapped.
+	 */
+	public MappedStorage(String dbPath) throws FileNotFoundException, 
+			IOException {
+		this.file = new RandomAccessFile(dbPath, "rw");
+		this.channel = this.file.getChannel();
+		map(this.channel.size());
+	}
+
+	/**
+	 * Maps the first {@code size} bytes of the file.
+	 */
+	private void map(long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("File too large to be mapped: " + size);
+		}
+		this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, 
+				size);
+	}
+
+	@Override
+	public void read(long position, byte[] buffer, int offset, int length) 
+			throws IOException {
+		MappedByteBuffer mapped = this.buffer;
+		if (position + length > mapped.capacity()) {
+			throw new EOFException();
+		}
+
+		// Use a duplicate so the position of the mapped buffer is untouched.
+		ByteBuffer view = mapped.duplicate();
+		view.position((int) position);
+		view.get(buffer, offset, length);
+	}
+
+	@Override
+	public void write(long position, byte[] buffer) throws IOException {
+		MappedByteBuffer mapped = this.buffer;
+
+		// Writes inside the mapped region are simple memory copies.
+		if (position + buffer.length <= mapped.capacity()) {
+			ByteBuffer view = mapped.duplicate();
+			view.position((int) position);
+			view.put(buffer);
+			return;
+		}
+
+		// Otherwise the file grows and must be mapped again.
+		extend(position, buffer);
+	}
+
+	/**
+	 * Writes the given data through the channel and maps the file again
+	 * with its new length.
+	 */
+	private synchronized void extend(long position, byte[] buffer) 
+			throws IOException {
+		ByteBuffer source = ByteBuffer.wrap(buffer);
+		while (source.hasRemaining()) {
+			this.channel.write(source, position + source.position());
+		}
+		map(this.channel.size());
+	}
+
+	@Override
+	public long length() throws IOException {
+		return this.buffer.capacity();
+	}
+
+	@Override
+	public void force() throws IOException {
+		this.buffer.force();
+		this.channel.force(true);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.buffer.force();
+		this.channel.close();
+		this.file.close();
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * PrefixIndex.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+
+/**
+ * An in-memory index, for each field, of the records that are not deleted.
+ * Each column keeps its (value, record number) pairs sorted by value, so 
+ * the records with a field that begins with a given criteria are found by
+ * a range lookup, as required by {@link DB#find(String[])}. <p>
+ * 
+ * The values are indexed exactly as they are stored in the file, including
+ * the characters used to fill the fixed width of the fields. The results of
+ * a lookup must still be matched against the criteria, since the index may
+ * be changed right after the lookup. <p>
+ * 
+ * All methods are synchronized, so a lookup sees every change to a record
+ * either completely or not at all.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.3
+ * @see Data
+ * @see Record
+ */
+class PrefixIndex {
+
+	/**
+	 * The character greater than any character of the database charset. A
+	 * value begins with a criteria if it is not lower than the criteria and 
+	 * lower than the criteria followed by this character.
+	 */
+	private static final char MAX_CHAR = '\uffff';
+
+	/**
+	 * The sorted entries of each column.
+	 */
+	private List<NavigableSet<Entry>> columns;
+
+	/**
+	 * Creates an empty index for the given number of columns.
+	 * 
+	 * @param numberOfColumns the number of fields of each record.
+	 */
+	public PrefixIndex(int numberOfColumns) {
+		this.columns = new ArrayList<NavigableSet<Entry>>(numberOfColumns);
+		for (int i = 0; i < numberOfColumns; i++) {
+			this.columns.add(new TreeSet<Entry>());
+		}
+	}
+
+	/**
+	 * Replaces in the index the fields of the record {@code before} with the
+	 * fields of the record {@code after}. Deleted or {@code null} records are
+	 * not indexed.
+	 * 
+	 * @param recNo the record number.
+	 * @param before the record before the change.
+	 * @param after the record after the change.
+	 */
+	public synchronized void update(int recNo, Record before, Record after) {
+		boolean isIndexed = before != null && !before.isDeleted();
+		boolean willIndex = after != null && !after.isDeleted();
+		for (int i = 0; i < this.columns.size(); i++) {
+			if (isIndexed) {
+				this.columns.get(i).remove(new Entry(before.get(i), recNo));
+			}
+			if (willIndex) {
+				this.columns.get(i).add(new Entry(after.get(i), recNo));
+			}
+		}
+	}
+
+	/**
+	 * Returns the numbers of the records with all fields beginning with the
+	 * respective {@code non-null} element of the criteria, in ascending 
+	 * order. Returns {@code null} if all the elements are {@code null}, 
+	 * since in that case the index gives no advantage.
+	 * 
+	 * @param criteria an array of strings with the expressions to match.
+	 * @return an array with the record numbers, or {@code null}.
+	 */
+	public synchronized int[] find(String[] criteria) {
+		BitSet candidates = null;
+		for (int i = 0; i < criteria.length && i < this.columns.size(); i++) {
+			if (criteria[i] == null) {
+				continue;
+			}
+
+			// Records with a value in [criteria, criteria + MAX_CHAR).
+			Entry from = new Entry(criteria[i], Integer.MIN_VALUE);
+			Entry to = new Entry(criteria[i] + MAX_CHAR, Integer.MIN_VALUE);
+			BitSet matches = new BitSet();
+			for (Entry entry 
+					: this.columns.get(i).subSet(from, true, to, false)) {
+				matches.set(entry.recNo);
+			}
+			if (candidates == null) {
+				candidates = matches;
+			} else {
+				candidates.and(matches);
+			}
+			if (candidates.isEmpty()) {
+				break;
+			}
+		}
+		if (candidates == null) {
+			return null;
+		}
+		int[] recNumbers = new int[candidates.cardinality()];
+		for (int i = 0, recNo = candidates.nextSetBit(0); recNo >= 0; 
+				recNo = candidates.nextSetBit(recNo + 1)) {
+			recNumbers[i++] = recNo;
+		}
+		return recNumbers;
+	}
+
+	/**
+	 * Writes the entries of all the columns to the given output.
+	 * 
+	 * @param out the output where the index is written.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public synchronized void writeTo(DataOutput out) throws IOException {
+		for (NavigableSet<Entry> column : this.columns) {
+			out.writeInt(column.size());
+			for (Entry entry : column) {
+				out.writeUTF(entry.value);
+				out.writeInt(entry.recNo);
+			}
+		}
+	}
+
+	/**
+	 * Adds to the empty index the entries written by 
+	 * {@link #writeTo(DataOutput)} for the same number of columns.
+	 * 
+	 * @param in the input from where the index is read.
+	 * @throws IOException if an I/O error occurs or if the entries are not
+	 * in order.
+	 */
+	public synchronized void readFrom(DataInput in) throws IOException {
+		for (NavigableSet<Entry> column : this.columns) {
+			Entry last = null;
+			for (int i = in.readInt(); i > 0; i--) {
+				Entry entry = new Entry(in.readUTF(), in.readInt());
+				if (last != null && last.compareTo(entry) >= 0) {
+					throw new IOException("Index entries out of order.");
+				}
+				column.add(entry);
+				last = entry;
+			}
+		}
+	}
+
+	/**
+	 * A field value of a record, ordered by value and than by record 
+	 * number.
+	 */
+	private static class Entry implements Comparable<Entry> {
+
+		/**
+		 * The field value.
+		 */
+		private String value;
+
+		/**
+		 * The record number.
+		 */
+		private int recNo;
+
+		/**
+		 * Creates an entry with the given value and record number.
+		 */
+		public Entry(String value, int recNo) {
+			this.value = value;
+			this.recNo = recNo;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			int result = this.value.compareTo(other.value);
+			if (result != 0) {
+				return result;
+			}
+			return (this.recNo < other.recNo) ? -1 
+					: ((this.recNo == other.recNo) ? 0 : 1);
+		}
+	}
+}
@@ -0,0 +1,298 @@
+/*
+ * RecordBitmap.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * The state of every record of the database kept in two bitsets, one with
+ * the live records and another with the free numbers, the numbers of the
+ * deleted records which can be reused. A record being created is neither
+ * live nor free. <p>
+ * 
+ * The bits are kept in fixed size segments that are never copied and are
+ * changed with atomic operations, so the state of a record can be checked
+ * without locks or I/O. Free numbers are allocated without locks, starting
+ * from a hint with the first word of the free bitset that may have a bit
+ * set, so the lowest free number is normally reused first.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.1
+ * @see Data
+ */
+class RecordBitmap {
+
+	/**
+	 * The number of words in each segment.
+	 */
+	private static final int SEGMENT_WORDS = 1024;
+
+	/**
+	 * The number of records in each segment.
+	 */
+	private static final int SEGMENT_SIZE = SEGMENT_WORDS * 64;
+
+	/**
+	 * The segments with the bits of the live records.
+	 */
+	private volatile AtomicLongArray[] live = new AtomicLongArray[0];
+
+	/**
+	 * The segments with the bits of the free numbers.
+	 */
+	private volatile AtomicLongArray[] free = new AtomicLongArray[0];
+
+	/**
+	 * The number of records, including the deleted ones and the ones being
+	 * created.
+	 */
+	private AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * The word where the search for a free number starts, in the high 32
+	 * bits, and the number of times a number was freed, in the low 32
+	 * bits. The count makes the hint move forward only if no number was
+	 * freed during the search.
+	 */
+	private AtomicLong hint = new AtomicLong();
+
+	/**
+	 * Returns the number of records, including the deleted ones.
+	 * 
+	 * @return the number of records.
+	 */
+	public int size() {
+		return this.size.get();
+	}
+
+	/**
+	 * Returns true if the record with the given number is live.
+	 * 
+	 * @param recNo the record number.
+	 * @return true if the record exists and is not deleted.
+	 */
+	public boolean isLive(int recNo) {
+		AtomicLongArray[] current = this.live;
+		return recNo >= 0 && recNo / SEGMENT_SIZE < current.length
+				&& isSet(current, recNo);
+	}
+
+	/**
+	 * Marks the record with the given number as live. The record number
+	 * must have been allocated or reserved.
+	 * 
+	 * @param recNo the record number.
+	 */
+	public void setLive(int recNo) {
+		set(this.live, recNo);
+	}
+
+	/**
+	 * Marks the record with the given number as deleted, making its number
+	 * free to be reused.
+	 * 
+	 * @param recNo the record number.
+	 */
+	public void setDeleted(int recNo) {
+		clear(this.live, recNo);
+		release(recNo);
+	}
+
+	/**
+	 * Makes the given number free to be reused, without changing the live
+	 * bitset. It is used when the creation of a record fails.
+	 * 
+	 * @param recNo the record number.
+	 */
+	public void release(int recNo) {
+		set(this.free, recNo);
+
+		// Move the hint back to the word of the number.
+		int word = recNo >>> 6;
+		while (true) {
+			long current = this.hint.get();
+			int start = Math.min((int) (current >>> 32), word);
+			long count = (current + 1) & 0xFFFFFFFFL;
+			if (this.hint.compareAndSet(current,
+					((long) start << 32) | count)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Adds the given number of records to the end while loading the 
+	 * database. The records are neither live nor free until 
+	 * {@link #setLive(int)} or {@link #release(int)} are called.
+	 * 
+	 * @param count the number of records to add.
+	 */
+	public void reserve(int count) {
+		int first = this.size.getAndAdd(count);
+		grow((first + count + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+	}
+
+	/**
+	 * Allocates a number for a new record, reusing the lowest free number
+	 * if there is one, or adding a record to the end. The allocated record
+	 * is neither live nor free until {@link #setLive(int)} or
+	 * {@link #release(int)} are called.
+	 * 
+	 * @return the allocated record number.
+	 */
+	public int allocate() {
+		long current = this.hint.get();
+		AtomicLongArray[] bitset = this.free;
+		int words = Math.min((this.size.get() + 63) >>> 6, 
+				bitset.length * SEGMENT_WORDS);
+		for (int word = (int) (current >>> 32); word < words; word++) {
+			AtomicLongArray segment = segment(bitset, word * 64);
+			int index = word % SEGMENT_WORDS;
+			long bits;
+			while ((bits = segment.get(index)) != 0) {
+				long lowest = Long.lowestOneBit(bits);
+				if (segment.compareAndSet(index, bits, bits & ~lowest)) {
+					moveHint(current, word);
+					return word * 64 + Long.numberOfTrailingZeros(lowest);
+				}
+			}
+		}
+		moveHint(current, words);
+		return append();
+	}
+
+	/**
+	 * Writes the live bitset to the given output, one word for every 64 
+	 * records.
+	 * 
+	 * @param out the output where the bitset is written.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		AtomicLongArray[] bitset = this.live;
+		int words = (this.size.get() + 63) >>> 6;
+		for (int word = 0; word < words; word++) {
+			out.writeLong(segment(bitset, word * 64).get(word % SEGMENT_WORDS));
+		}
+	}
+
+	/**
+	 * Reads the live bitset written by {@link #writeTo(DataOutput)} for the
+	 * reserved records. Every record which is not live becomes free.
+	 * 
+	 * @param in the input from where the bitset is read.
+	 * @throws IOException if an I/O error occurs or if the bitset has 
+	 * records beyond the reserved ones.
+	 */
+	public void readFrom(DataInput in) throws IOException {
+		int size = this.size.get();
+		int words = (size + 63) >>> 6;
+		for (int word = 0; word < words; word++) {
+			long bits = in.readLong();
+			int remaining = size - word * 64;
+			long mask = (remaining >= 64) ? -1L : (1L << remaining) - 1;
+			if ((bits & ~mask) != 0) {
+				throw new IOException("Invalid record bitmap.");
+			}
+			int index = word % SEGMENT_WORDS;
+			segment(this.live, word * 64).set(index, bits);
+			segment(this.free, word * 64).set(index, ~bits & mask);
+		}
+	}
+
+	/**
+	 * Moves the hint forward to the given word, unless it was changed
+	 * since it was read.
+	 */
+	private void moveHint(long expected, int word) {
+		if ((int) (expected >>> 32) < word) {
+			this.hint.compareAndSet(expected,
+					((long) word << 32) | (expected & 0xFFFFFFFFL));
+		}
+	}
+
+	/**
+	 * Adds a record number to the end, creating the segments for it if
+	 * needed.
+	 */
+	private int append() {
+		int recNo = this.size.getAndIncrement();
+		if (recNo / SEGMENT_SIZE >= this.live.length) {
+			grow(recNo / SEGMENT_SIZE + 1);
+		}
+		return recNo;
+	}
+
+	/**
+	 * Creates segments until there are the given number of segments. The
+	 * existing segments are shared with the new arrays.
+	 */
+	private synchronized void grow(int segments) {
+		if (segments <= this.live.length) {
+			return;
+		}
+		AtomicLongArray[] newLive = new AtomicLongArray[segments];
+		AtomicLongArray[] newFree = new AtomicLongArray[segments];
+		System.arraycopy(this.live, 0, newLive, 0, this.live.length);
+		System.arraycopy(this.free, 0, newFree, 0, this.free.length);
+		for (int i = this.live.length; i < segments; i++) {
+			newLive[i] = new AtomicLongArray(SEGMENT_WORDS);
+			newFree[i] = new AtomicLongArray(SEGMENT_WORDS);
+		}
+
+		// The free segments must be visible before the live ones.
+		this.free = newFree;
+		this.live = newLive;
+	}
+
+	/**
+	 * Returns the segment of the bitset with the bit of the given record.
+	 */
+	private static AtomicLongArray segment(AtomicLongArray[] bitset,
+			int recNo) {
+		return bitset[recNo / SEGMENT_SIZE];
+	}
+
+	/**
+	 * Returns true if the bit of the given record is set.
+	 */
+	private static boolean isSet(AtomicLongArray[] bitset, int recNo) {
+		int index = (recNo >>> 6) % SEGMENT_WORDS;
+		return (segment(bitset, recNo).get(index) & (1L << recNo)) != 0;
+	}
+
+	/**
+	 * Sets the bit of the given record.
+	 */
+	private static void set(AtomicLongArray[] bitset, int recNo) {
+		AtomicLongArray segment = segment(bitset, recNo);
+		int index = (recNo >>> 6) % SEGMENT_WORDS;
+		long bits;
+		do {
+			bits = segment.get(index);
+		} while (!segment.compareAndSet(index, bits, bits | (1L << recNo)));
+	}
+
+	/**
+	 * Clears the bit of the given record.
+	 */
+	private static void clear(AtomicLongArray[] bitset, int recNo) {
+		AtomicLongArray segment = segment(bitset, recNo);
+		int index = (recNo >>> 6) % SEGMENT_WORDS;
+		long bits;
+		do {
+			bits = segment.get(index);
+		} while (!segment.compareAndSet(index, bits, bits & ~(1L << recNo)));
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * RecordCodec.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.nio.charset.Charset;
+
+import java.util.Arrays;
+
+
+/**
+ * Converts records to and from their bytes in the database file, using the
+ * sizes of the fields of the schema. A record is encoded as its deleted
+ * flag followed by each field, padded with spaces or truncated to the size
+ * of the field, so the fields never shift whatever the length of the
+ * values. <p>
+ * 
+ * Records are encoded into a buffer of each thread which is reused, so the
+ * encoded bytes are only valid until the next record is encoded by the
+ * same thread.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see Data
+ * @see Schema
+ */
+class RecordCodec {
+
+	/**
+	 * The byte used to fill the unused part of the fields.
+	 */
+	private static final byte PADDING = ' ';
+
+	/**
+	 * The indices of the elements which are part of the primary key.
+	 */
+	private static final int[] KEY_INDICES = Record.getKeyIndices();
+
+	/**
+	 * The database schema.
+	 */
+	private Schema schema;
+
+	/**
+	 * The charset of the fields.
+	 */
+	private Charset charset;
+
+	/**
+	 * The buffer of each thread where records are encoded.
+	 */
+	private ThreadLocal<byte[]> buffers;
+
+	/**
+	 * Creates a codec for the given schema and charset.
+	 * 
+	 * @param schema the database schema.
+	 * @param charset the name of the charset of the fields.
+	 * @throws java.nio.charset.UnsupportedCharsetException if the charset 
+	 * is not supported.
+	 */
+	public RecordCodec(Schema schema, String charset) {
+		this.schema = schema;
+		this.charset = Charset.forName(charset);
+		final int recordLength = schema.getRecordSize() + 1;
+		this.buffers = new ThreadLocal<byte[]>() {
+			@Override
+			protected byte[] initialValue() {
+				return new byte[recordLength];
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of bytes of a record, including the deleted flag.
+	 * 
+	 * @return the length of a record in bytes.
+	 */
+	public int getRecordLength() {
+		return this.schema.getRecordSize() + 1;
+	}
+
+	/**
+	 * Encodes a record which is not deleted with the given fields. A
+	 * {@code null} field is encoded as an empty one.
+	 * 
+	 * @param data the fields of the record.
+	 * @return the buffer of the current thread with the encoded record.
+	 */
+	public byte[] encode(String[] data) {
+		byte[] buffer = this.buffers.get();
+		buffer[0] = 0;
+		for (int i = 0, st = 1; i < this.schema.getNumberOfColumns(); i++) {
+			int size = this.schema.getColumnSize(i);
+			int length = 0;
+			if (i < data.length && data[i] != null) {
+				byte[] field = data[i].getBytes(this.charset);
+				length = Math.min(field.length, size);
+				System.arraycopy(field, 0, buffer, st, length);
+			}
+			Arrays.fill(buffer, st + length, st + size, PADDING);
+			st = st + size;
+		}
+		return buffer;
+	}
+
+	/**
+	 * Encodes a deleted record, with the deleted flag set to "1" and every
+	 * other byte set to zero.
+	 * 
+	 * @return the buffer of the current thread with the encoded record.
+	 */
+	public byte[] encodeDeleted() {
+		byte[] buffer = this.buffers.get();
+		Arrays.fill(buffer, (byte) 0);
+		buffer[0] = 1;
+		return buffer;
+	}
+
+	/**
+	 * Decodes the record stored in the byte array, starting in the given
+	 * offset with the deleted flag.
+	 * 
+	 * @param recordArray the bytes with the record.
+	 * @param offset the offset of the deleted flag.
+	 * @return the decoded record.
+	 */
+	public Record decode(byte[] recordArray, int offset) {
+		String[] data = new String[this.schema.getNumberOfColumns()];
+
+		// First byte corresponds to the deleted flag.
+		int deletedFlag = recordArray[offset];
+
+		// Using the database schema create the String array data dynamically.
+		for (int i = 0, st = offset + 1; i < data.length; i++) {
+			int size = this.schema.getColumnSize(i);
+			data[i] = new String(recordArray, st, size, this.charset);
+			st = st + size;
+		}
+		return new Record(data, deletedFlag);
+	}
+
+	/**
+	 * Decodes only the deleted flag and the fields of the primary key of
+	 * the record stored in the byte array, starting in the given offset.
+	 * The other fields are {@code null}.
+	 * 
+	 * @param recordArray the bytes with the record.
+	 * @param offset the offset of the deleted flag.
+	 * @return the partially decoded record.
+	 */
+	public Record decodeKey(byte[] recordArray, int offset) {
+		String[] data = new String[this.schema.getNumberOfColumns()];
+		for (int i = 0, st = offset + 1; i < data.length; i++) {
+			int size = this.schema.getColumnSize(i);
+			for (int keyIndex : KEY_INDICES) {
+				if (keyIndex == i) {
+					data[i] = new String(recordArray, st, size, this.charset);
+				}
+			}
+			st = st + size;
+		}
+		return new Record(data, recordArray[offset]);
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * RecordLatches.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+/**
+ * Short term latches which protect the physical records while they are 
+ * being read or written. These are not the logical locks of the 
+ * {@code DB} interface, they are only held during a single access to
+ * the file. <p>
+ * 
+ * Records are spread over a fixed number of read/write locks, so readers
+ * never block each other and a writer only blocks the accesses to the 
+ * records sharing its stripe.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.1
+ * @see ReadWriteLock
+ */
+class RecordLatches {
+
+	/**
+	 * The read/write locks shared by the records.
+	 */
+	private ReadWriteLock[] stripes;
+
+	/**
+	 * Creates the latches with the specified number of stripes.
+	 * 
+	 * @param numberOfStripes the number of read/write locks to create.
+	 */
+	public RecordLatches(int numberOfStripes) {
+		this.stripes = new ReadWriteLock[numberOfStripes];
+		for (int i = 0; i < numberOfStripes; i++) {
+			this.stripes[i] = new ReentrantReadWriteLock();
+		}
+	}
+
+	/**
+	 * Returns the latch which must be held while reading the given record.
+	 * 
+	 * @param recNo the record number to read.
+	 * @return the read latch of the given record.
+	 */
+	public Lock readLatch(int recNo) {
+		return stripe(recNo).readLock();
+	}
+
+	/**
+	 * Returns the latch which must be held while writing the given record.
+	 * 
+	 * @param recNo the record number to write.
+	 * @return the write latch of the given record.
+	 */
+	public Lock writeLatch(int recNo) {
+		return stripe(recNo).writeLock();
+	}
+
+	/**
+	 * Returns the latches which must be held while writing all the given
+	 * records, each once and always in the same order, so two writers 
+	 * taking them never wait for each other.
+	 * 
+	 * @param recNos the record numbers to write.
+	 * @return the write latches of the given records, in the order they
+	 * must be taken.
+	 */
+	public List<Lock> writeLatches(int[] recNos) {
+		boolean[] isUsed = new boolean[this.stripes.length];
+		for (int recNo : recNos) {
+			isUsed[index(recNo)] = true;
+		}
+		List<Lock> latches = new ArrayList<Lock>();
+		for (int i = 0; i < isUsed.length; i++) {
+			if (isUsed[i]) {
+				latches.add(this.stripes[i].writeLock());
+			}
+		}
+		return latches;
+	}
+
+	/**
+	 * Returns the read/write lock shared by the given record.
+	 */
+	private ReadWriteLock stripe(int recNo) {
+		return this.stripes[index(recNo)];
+	}
+
+	/**
+	 * Returns the index of the stripe of the given record.
+	 */
+	private int index(int recNo) {
+		return (recNo & Integer.MAX_VALUE) % this.stripes.length;
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * RecordTable.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * An in-memory table with the decoded records of the database, indexed by
+ * record number. It is used by {@code Data} in the resident mode, where
+ * reads and searches are served from memory and every change is written
+ * through to the file. <p>
+ * 
+ * The records are kept in fixed size segments that are never copied, so
+ * growing the table does not interfere with the records being replaced
+ * at the same time. Accesses to a record must be guarded by its latch,
+ * this class only guarantees the consistency of the segments. <p>
+ * 
+ * The table counts the lookups that found (hits) or did not found (misses)
+ * a record and keeps an estimate of the memory used by the records.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see Data
+ * @see Record
+ */
+class RecordTable {
+
+	/**
+	 * The number of records in each segment.
+	 */
+	private static final int SEGMENT_SIZE = 1024;
+
+	/**
+	 * The estimated number of bytes used by a {@code Record} object and its
+	 * array of fields, not counting the fields themselves.
+	 */
+	private static final int RECORD_OVERHEAD = 48;
+
+	/**
+	 * The estimated number of bytes used by a {@code String} object, not
+	 * counting its characters.
+	 */
+	private static final int STRING_OVERHEAD = 40;
+
+	/**
+	 * The segments with the records.
+	 */
+	private volatile Record[][] segments = new Record[0][];
+
+	/**
+	 * The number of lookups which found the record in the table.
+	 */
+	private AtomicLong hits = new AtomicLong();
+
+	/**
+	 * The number of lookups which did not find the record in the table.
+	 */
+	private AtomicLong misses = new AtomicLong();
+
+	/**
+	 * The estimated number of bytes used by the records in the table.
+	 */
+	private AtomicLong footprint = new AtomicLong();
+
+	/**
+	 * Returns the record with the given number or {@code null} if the 
+	 * table does not have it.
+	 * 
+	 * @param recNo the number of the record to return.
+	 * @return the record with the given number or {@code null}.
+	 */
+	public Record get(int recNo) {
+		Record[][] current = this.segments;
+		int segment = recNo / SEGMENT_SIZE;
+		Record record = null;
+		if (recNo >= 0 && segment < current.length) {
+			record = current[segment][recNo % SEGMENT_SIZE];
+		}
+		if (record == null) {
+			this.misses.incrementAndGet();
+		} else {
+			this.hits.incrementAndGet();
+		}
+		return record;
+	}
+
+	/**
+	 * Stores the record with the given number, replacing the previous one.
+	 * 
+	 * @param recNo the number of the record to store.
+	 * @param record the record to store.
+	 */
+	public void put(int recNo, Record record) {
+		Record[] segment = getSegment(recNo);
+		int index = recNo % SEGMENT_SIZE;
+		Record previous = segment[index];
+		segment[index] = record;
+		this.footprint.addAndGet(sizeOf(record) - sizeOf(previous));
+	}
+
+	/**
+	 * Returns the number of lookups which found the record in the table.
+	 * 
+	 * @return the number of hits.
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Returns the number of lookups which did not find the record in the
+	 * table.
+	 * 
+	 * @return the number of misses.
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Returns the estimated number of bytes used by the table.
+	 * 
+	 * @return the estimated memory footprint in bytes.
+	 */
+	public long getFootprint() {
+		long references = (long) this.segments.length * SEGMENT_SIZE * 8;
+		return references + this.footprint.get();
+	}
+
+	/**
+	 * Returns the segment where the given record is stored, creating the
+	 * missing segments if needed.
+	 */
+	private Record[] getSegment(int recNo) {
+		int segment = recNo / SEGMENT_SIZE;
+		Record[][] current = this.segments;
+		if (segment < current.length) {
+			return current[segment];
+		}
+		synchronized (this) {
+			current = this.segments;
+			if (segment >= current.length) {
+				Record[][] grown = new Record[segment + 1][];
+				System.arraycopy(current, 0, grown, 0, current.length);
+				for (int i = current.length; i < grown.length; i++) {
+					grown[i] = new Record[SEGMENT_SIZE];
+				}
+				this.segments = grown;
+				current = grown;
+			}
+			return current[segment];
+		}
+	}
+
+	/**
+	 * Returns the estimated number of bytes used by the given record.
+	 */
+	private static long sizeOf(Record record) {
+		if (record == null) {
+			return 0;
+		}
+		String[] data = record.getStringArray();
+		long size = RECORD_OVERHEAD + 4L * data.length;
+		for (String field : data) {
+			size += STRING_OVERHEAD + 2L * field.length();
+		}
+		return size;
+	}
+}
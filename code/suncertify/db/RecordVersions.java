@@ -0,0 +1,396 @@
+/*
+ * RecordVersions.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * The snapshots of the database seen by the readers, and the previous
+ * versions of the records changed while the snapshots are open. <p>
+ * 
+ * Every change to a record is given an epoch, which grows with each change.
+ * A snapshot is the greatest epoch up to which every change was finished
+ * when it was opened, and sees every record as it was before the first
+ * change with a greater epoch. So each change keeps the record as it was
+ * before, and a reader using the snapshot is never affected by the changes
+ * being made or made after it was opened, without blocking them. <p>
+ * 
+ * The finished epoch is published when each change finishes, and a
+ * snapshot is opened by reading it, so opening a snapshot never waits for
+ * the changes being made, nor for them to be durable. The changes made
+ * together are finished from the last to the first, so no change is ever
+ * half seen. <p>
+ * 
+ * The previous versions are only kept while a snapshot may need them, and
+ * are discarded once they are older than the finished epoch and than the
+ * oldest open snapshot. <p>
+ * 
+ * The epoch of the last change of each record is kept as its version 
+ * (stamp), which is zero for the records not changed since the database 
+ * was opened.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.2
+ * @see Data
+ */
+class RecordVersions {
+
+	/**
+	 * The snapshot which always sees the current records.
+	 */
+	public static final long CURRENT = Long.MAX_VALUE;
+
+	/**
+	 * The number of records in each segment of the stamps.
+	 */
+	private static final int SEGMENT_SIZE = 65536;
+
+	/**
+	 * The epoch of the last change.
+	 */
+	private AtomicLong epoch = new AtomicLong();
+
+	/**
+	 * The epochs of the changes being made. It is guarded by its own 
+	 * monitor, which also orders the epochs given to the changes.
+	 */
+	private SortedSet<Long> unfinished = new TreeSet<Long>();
+
+	/**
+	 * The greatest epoch up to which every change is finished.
+	 */
+	private volatile long finished;
+
+	/**
+	 * The number of open snapshots of each epoch. It is guarded by the
+	 * monitor of this object.
+	 */
+	private SortedMap<Long, Integer> snapshots = new TreeMap<Long, Integer>();
+
+	/**
+	 * The epoch of the oldest open snapshot, or {@code Long.MAX_VALUE} if
+	 * there are no open snapshots.
+	 */
+	private volatile long oldest = Long.MAX_VALUE;
+
+	/**
+	 * The previous versions of each changed record, the most recent first.
+	 */
+	private ConcurrentMap<Integer, Version> versions =
+			new ConcurrentHashMap<Integer, Version>();
+
+	/**
+	 * The stamps of the records, in segments that are never copied.
+	 */
+	private volatile AtomicLongArray[] stamps = new AtomicLongArray[0];
+
+	/**
+	 * Opens a snapshot with the records as they are now, without waiting
+	 * for the changes being made.
+	 * 
+	 * @return the epoch of the snapshot.
+	 */
+	public long open() {
+		long snapshot = this.finished;
+		count(snapshot, 1);
+
+		/*
+		 * The changes which did not see the snapshot counted only discard
+		 * the versions up to the finished epoch they read before, which is
+		 * not greater than the one read now.
+		 */
+		long seen = this.finished;
+		if (seen != snapshot) {
+			count(seen, 1);
+			count(snapshot, -1);
+		}
+		return seen;
+	}
+
+	/**
+	 * Closes a snapshot, discarding the versions which are no longer needed
+	 * by the remaining snapshots.
+	 * 
+	 * @param snapshot the epoch of the snapshot.
+	 */
+	public void close(long snapshot) {
+
+		// A snapshot opened from now on never needs the finished versions.
+		long current = this.finished;
+		if (!count(snapshot, -1)) {
+			return;
+		}
+		long limit = Math.min(this.oldest, current);
+		if (limit < snapshot) {
+			return;
+		}
+		discardAll(limit);
+	}
+
+	/**
+	 * Starts a change to the record with the given number, keeping its
+	 * previous version for the snapshots. The caller must hold the write
+	 * latch of the record, and must call {@link #changed(int)} when the
+	 * change is finished.
+	 * 
+	 * @param recNo the number of the record being changed.
+	 * @param before the record before the change, or {@code null} if it
+	 * did not exist or was deleted.
+	 * @return the new stamp of the record.
+	 */
+	public long changing(int recNo, Record before) {
+		long changeEpoch;
+		synchronized (this.unfinished) {
+			changeEpoch = this.epoch.incrementAndGet();
+			this.unfinished.add(changeEpoch);
+		}
+		segment(recNo).set(recNo % SEGMENT_SIZE, changeEpoch);
+		if (before != null && before.isDeleted()) {
+			before = null;
+		}
+		Version version = new Version(changeEpoch, before,
+				this.versions.get(recNo));
+		this.versions.put(recNo, version);
+		discard(recNo, version, limit());
+		return changeEpoch;
+	}
+
+	/**
+	 * Finishes the change to the record with the given number started by
+	 * {@link #changing(int, Record)}, publishing it to the snapshots opened
+	 * from now on once every change before it is finished. The changes 
+	 * made together must be finished in the reverse order they were 
+	 * started. The caller must still hold the write latch of the record.
+	 * 
+	 * @param recNo the number of the changed record.
+	 */
+	public void changed(int recNo) {
+		long changeEpoch = getStamp(recNo);
+		long current;
+		synchronized (this.unfinished) {
+			this.unfinished.remove(changeEpoch);
+			current = this.unfinished.isEmpty() ? this.epoch.get()
+												: this.unfinished.first() - 1;
+			this.finished = current;
+		}
+		long limit = limit();
+		if (current > changeEpoch && limit > changeEpoch) {
+
+			// The versions of the changes finished before are discarded too.
+			discardAll(limit);
+		} else {
+			Version version = this.versions.get(recNo);
+			if (version != null) {
+				discard(recNo, version, limit);
+			}
+		}
+	}
+
+	/**
+	 * Returns the version of the record with the given number seen by the
+	 * snapshot, or {@code null} if the snapshot sees the current record. The
+	 * caller must hold the read latch of the record.
+	 * 
+	 * @param recNo the record number.
+	 * @param snapshot the epoch of the snapshot.
+	 * @return the version seen by the snapshot, or {@code null}.
+	 */
+	public Version get(int recNo, long snapshot) {
+		Version seen = null;
+		for (Version version = this.versions.get(recNo);
+				version != null && version.epoch > snapshot;
+				version = version.older) {
+			seen = version;
+		}
+		return seen;
+	}
+
+	/**
+	 * Returns the stamp of the record with the given number, the epoch of
+	 * its last change. The caller must hold the read latch of the record 
+	 * for the stamp to match the record read.
+	 * 
+	 * @param recNo the record number.
+	 * @return the stamp of the record, or zero if it was not changed since
+	 * the database was opened.
+	 */
+	public long getStamp(int recNo) {
+		AtomicLongArray[] current = this.stamps;
+		if (recNo < 0 || recNo / SEGMENT_SIZE >= current.length) {
+			return 0;
+		}
+		return current[recNo / SEGMENT_SIZE].get(recNo % SEGMENT_SIZE);
+	}
+
+	/**
+	 * Returns true if the record with the given number has previous
+	 * versions, so it may be seen differently by the snapshots.
+	 * 
+	 * @param recNo the record number.
+	 * @return <tt>true</tt> if the record has previous versions.
+	 */
+	public boolean isChanged(int recNo) {
+		return !this.versions.isEmpty() && this.versions.containsKey(recNo);
+	}
+
+	/**
+	 * Returns the numbers of the records with previous versions, in
+	 * ascending order.
+	 * 
+	 * @return an array with the record numbers.
+	 */
+	public int[] getChangedRecords() {
+		int[] recNumbers = new int[this.versions.size()];
+		int count = 0;
+		for (int recNo : this.versions.keySet()) {
+			if (count == recNumbers.length) {
+				recNumbers = Arrays.copyOf(recNumbers, count * 2 + 1);
+			}
+			recNumbers[count++] = recNo;
+		}
+		recNumbers = Arrays.copyOf(recNumbers, count);
+		Arrays.sort(recNumbers);
+		return recNumbers;
+	}
+
+	/**
+	 * Returns the epoch up to which the versions are no longer needed by
+	 * the open snapshots, nor by the ones opened from now on.
+	 */
+	private long limit() {
+
+		// Read before the oldest snapshot, which may be opened meanwhile.
+		long current = this.finished;
+		return Math.min(this.oldest, current);
+	}
+
+	/**
+	 * Adds the given number to the count of open snapshots of the epoch,
+	 * and returns false if the epoch has no open snapshots to close.
+	 */
+	private synchronized boolean count(long snapshot, int delta) {
+		Integer count = this.snapshots.get(snapshot);
+		int newCount = ((count == null) ? 0 : count) + delta;
+		if (newCount < 0) {
+			return false;
+		} else if (newCount == 0) {
+			this.snapshots.remove(snapshot);
+		} else {
+			this.snapshots.put(snapshot, newCount);
+		}
+		this.oldest = this.snapshots.isEmpty() ? Long.MAX_VALUE
+											   : this.snapshots.firstKey();
+		return true;
+	}
+
+	/**
+	 * Discards the versions of all the records with an epoch not greater
+	 * than the limit.
+	 */
+	private void discardAll(long limit) {
+		Iterator<Map.Entry<Integer, Version>> entries =
+				this.versions.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<Integer, Version> entry = entries.next();
+			discard(entry.getKey(), entry.getValue(), limit);
+		}
+	}
+
+	/**
+	 * Returns the segment of the stamps with the stamp of the given record,
+	 * creating the segments up to it if needed.
+	 */
+	private AtomicLongArray segment(int recNo) {
+		AtomicLongArray[] current = this.stamps;
+		if (recNo / SEGMENT_SIZE < current.length) {
+			return current[recNo / SEGMENT_SIZE];
+		}
+		synchronized (this) {
+			current = this.stamps;
+			if (recNo / SEGMENT_SIZE >= current.length) {
+				AtomicLongArray[] grown = Arrays.copyOf(current, 
+						recNo / SEGMENT_SIZE + 1);
+				for (int i = current.length; i < grown.length; i++) {
+					grown[i] = new AtomicLongArray(SEGMENT_SIZE);
+				}
+				this.stamps = grown;
+				current = grown;
+			}
+			return current[recNo / SEGMENT_SIZE];
+		}
+	}
+
+	/**
+	 * Discards the versions of the record, starting with the given one,
+	 * with an epoch not greater than the limit, since no snapshot needs
+	 * them.
+	 */
+	private void discard(int recNo, Version first, long limit) {
+		if (first.epoch <= limit) {
+			this.versions.remove(recNo, first);
+			return;
+		}
+		for (Version version = first; version.older != null;
+				version = version.older) {
+			if (version.older.epoch <= limit) {
+				version.older = null;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A previous version of a record, kept until no snapshot needs it.
+	 */
+	static class Version {
+
+		/**
+		 * The epoch of the change which replaced this version.
+		 */
+		private final long epoch;
+
+		/**
+		 * The record, or {@code null} if it did not exist or was deleted.
+		 */
+		private final Record record;
+
+		/**
+		 * The version before this one.
+		 */
+		private volatile Version older;
+
+		/**
+		 * Creates a version replaced by the change with the given epoch.
+		 */
+		private Version(long epoch, Record record, Version older) {
+			this.epoch = epoch;
+			this.record = record;
+			this.older = older;
+		}
+
+		/**
+		 * Returns the record of this version.
+		 * 
+		 * @return the record, or {@code null} if it did not exist or was
+		 * deleted.
+		 */
+		public Record getRecord() {
+			return this.record;
+		}
+	}
+}
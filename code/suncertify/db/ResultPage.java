@@ -0,0 +1,96 @@
+/*
+ * ResultPage.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.Serializable;
+
+import java.util.SortedMap;
+
+
+/**
+ * A page of the records that match a search, returned by
+ * {@link ExtendedDB#findPage(String[], long, int, int)}. Besides the
+ * records, a page has the continuation token from where the search goes on
+ * to return the next page. <p>
+ * 
+ * The token is the position of the search in the database, so the
+ * following pages are found without keeping any state in the database
+ * between the calls, and without finding the matches of the previous
+ * pages again.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see ExtendedDB
+ */
+public class ResultPage implements Serializable {
+
+	/**
+	 * Default serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The token which starts a search at the beginning of the database.
+	 */
+	public static final long FIRST = 0L;
+
+	/**
+	 * The token of the last page of a search, after which there are no
+	 * more records.
+	 */
+	public static final long END = -1L;
+
+	/**
+	 * The fields of the records of the page by record number.
+	 */
+	private SortedMap<Integer, String[]> records;
+
+	/**
+	 * The token from where the search goes on.
+	 */
+	private long nextToken;
+
+	/**
+	 * Creates a page with the given records and continuation token.
+	 * 
+	 * @param records the fields of the records of the page by record number.
+	 * @param nextToken the token from where the search goes on, or
+	 * {@link #END} if there are no more records.
+	 */
+	public ResultPage(SortedMap<Integer, String[]> records, long nextToken) {
+		this.records = records;
+		this.nextToken = nextToken;
+	}
+
+	/**
+	 * Returns the records of this page.
+	 * 
+	 * @return the fields of the records of the page by record number.
+	 */
+	public SortedMap<Integer, String[]> getRecords() {
+		return this.records;
+	}
+
+	/**
+	 * Returns the token to pass to the search of the next page.
+	 * 
+	 * @return the token from where the search goes on, or {@link #END} if
+	 * there are no more records.
+	 */
+	public long getNextToken() {
+		return this.nextToken;
+	}
+
+	/**
+	 * Returns true if the search may have more records after this page.
+	 * 
+	 * @return <tt>true</tt> if there is a next page to search.
+	 */
+	public boolean hasMore() {
+		return this.nextToken != END;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Storage.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.IOException;
+
+
+/**
+ * Represents the physical medium where the database file is kept. Every
+ * access is made using an absolute position in bytes, leaving to each 
+ * implementation the choice of how the file is actually read or written.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.1
+ * @see Data
+ */
+interface Storage {
+
+	/**
+	 * Reads {@code length} bytes starting at the given file position into
+	 * the buffer, starting at {@code offset}.
+	 * 
+	 * @param position the file position, in bytes, of the first byte to read.
+	 * @param buffer the buffer into which the data is read.
+	 * @param offset the start offset in the buffer.
+	 * @param length the number of bytes to read.
+	 * @throws java.io.EOFException if the end of the file is reached before
+	 * reading all the bytes.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void read(long position, byte[] buffer, int offset, int length) 
+			throws IOException;
+
+	/**
+	 * Writes all the bytes of the given buffer starting at the given file
+	 * position. Writing past the end of the file extends it.
+	 * 
+	 * @param position the file position, in bytes, of the first byte to write.
+	 * @param buffer the data to write.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void write(long position, byte[] buffer) throws IOException;
+
+	/**
+	 * Returns the length of the file in bytes.
+	 * 
+	 * @return the length of the file in bytes.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public long length() throws IOException;
+
+	/**
+	 * Forces all the changes written so far, including the length of the
+	 * file, to be written to the storage device.
+	 * 
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void force() throws IOException;
+
+	/**
+	 * Closes the file and releases any resources associated with it.
+	 * 
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void close() throws IOException;
+}
@@ -0,0 +1,50 @@
+/*
+ * StorageException.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+
+/**
+ * Thrown when the database file cannot be read or written, and the 
+ * operation cannot report it with the exceptions of its interface. The
+ * cause is the {@code IOException} of the database file. <p>
+ * 
+ * It is an unchecked exception, since the methods of the {@code DB}
+ * interface cannot throw other checked exceptions.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see RuntimeException
+ * @see DB#create(String[])
+ */
+public class StorageException extends RuntimeException {
+	
+	/**
+	 * Default serial version UID. 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a {@code StorageException} with the specified detail 
+	 * message.
+	 * 
+	 * @param msg the detail message.
+	 */
+	public StorageException(String msg) {
+		super(msg);
+	}
+
+	/**
+	 * Constructs a {@code StorageException} with the specified detail 
+	 * message and cause.
+	 * 
+	 * @param msg the detail message.
+	 * @param cause the failure of the database file.
+	 */
+	public StorageException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * VersionConflictException.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+
+/**
+ * Thrown when a record is updated with the version it had when it was read,
+ * and the record was changed or locked by another client since then.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see Exception
+ * @see ExtendedDB#updateIfVersion(int, String[], long)
+ */
+public class VersionConflictException extends Exception {
+	
+	/**
+	 * Default serial version UID. 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a {@code VersionConflictException} with no detail message.
+	 */
+	public VersionConflictException() {
+		super();
+	}
+
+	/**
+	 * Constructs a {@code VersionConflictException} with the specified
+	 * detail message.
+	 * 
+	 * @param msg the detail message.
+	 */
+	public VersionConflictException(String msg) {
+		super(msg);
+	}	
+}
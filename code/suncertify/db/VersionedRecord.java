@@ -0,0 +1,67 @@
+/*
+ * VersionedRecord.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.Serializable;
+
+
+/**
+ * The fields of a record together with its version, as returned by
+ * {@link ExtendedDB#readVersioned(int)}. The version changes every time the
+ * record is changed, so a client can update the record without locking it,
+ * only if nobody changed it after it was read.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see ExtendedDB
+ */
+public class VersionedRecord implements Serializable {
+
+	/**
+	 * Default serial version UID. 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The fields of the record.
+	 */
+	private String[] data;
+
+	/**
+	 * The version of the record.
+	 */
+	private long version;
+
+	/**
+	 * Creates a versioned record with the given fields and version.
+	 * 
+	 * @param data the fields of the record.
+	 * @param version the version of the record.
+	 */
+	public VersionedRecord(String[] data, long version) {
+		this.data = data;
+		this.version = version;
+	}
+
+	/**
+	 * Returns the fields of the record.
+	 * 
+	 * @return an array of strings with the fields of the record.
+	 */
+	public String[] getData() {
+		return this.data;
+	}
+
+	/**
+	 * Returns the version of the record when it was read.
+	 * 
+	 * @return the version of the record.
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+}
@@ -0,0 +1,462 @@
+/*
+ * WriteAheadLog.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.db;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+
+/**
+ * An append-only log kept next to a database file, where every change is
+ * recorded before it is written to the database file. The changes found in
+ * the log when it is opened are written again to the database file, so a
+ * change is never lost, nor half written, once it is in the log. <p>
+ * 
+ * Each entry has the file positions and the bytes written to the database
+ * file, followed by a checksum. An incomplete entry at the end of the log
+ * was never written to the database and is discarded. The changes of an
+ * entry are written all or none, so several changes logged in one entry
+ * are atomic. <p>
+ * 
+ * The durability of the log is one of: <ul>
+ * <li><tt>commit</tt> - each change waits for the log to be forced to the
+ * storage device. Writers that arrive while the log is being forced wait
+ * for the next force, which is made by one of them for all (group commit).
+ * <li>a number of milliseconds - the log is forced periodically, so at
+ * most the changes of that interval are lost in a system crash.
+ * <li><tt>os</tt> - the log is never forced, leaving it to the operating
+ * system.</ul>
+ * 
+ * When the log reaches a given size the database file is forced to the
+ * storage device and the log is emptied (checkpoint). There is a single
+ * log for each database file, shared by the instances of {@code Data} of
+ * that file, which is closed when the last of them closes it.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.3
+ * @see Data
+ */
+class WriteAheadLog {
+
+	/**
+	 * The extension added to the path of the database file.
+	 */
+	private static final String EXTENSION = ".wal";
+
+	/**
+	 * The durability where each change waits for the log to be forced.
+	 */
+	public static final String COMMIT = "commit";
+
+	/**
+	 * The durability where the log is never forced.
+	 */
+	public static final String OS = "os";
+
+	/**
+	 * The logs of each database file, by canonical path.
+	 */
+	private static final Map<String, WriteAheadLog> LOGS =
+			new HashMap<String, WriteAheadLog>();
+
+	/**
+	 * The canonical path of the database file, the key of this log in 
+	 * {@code LOGS}.
+	 */
+	private String dbPath;
+
+	/**
+	 * The number of instances of {@code Data} using this log. It is guarded
+	 * by the monitor of {@code LOGS}.
+	 */
+	private int users;
+
+	/**
+	 * The log file.
+	 */
+	private RandomAccessFile file;
+
+	/**
+	 * The channel of the log file.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * True if each change waits for the log to be forced.
+	 */
+	private boolean isCommitDurable;
+
+	/**
+	 * The size of the log which triggers a checkpoint.
+	 */
+	private long checkpointSize;
+
+	/**
+	 * The lock held in shared mode while a change is logged and written to
+	 * the database file, and in exclusive mode during a checkpoint.
+	 */
+	private ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+	/**
+	 * The monitor held while appending to the log.
+	 */
+	private Object appendLock = new Object();
+
+	/**
+	 * The number of bytes ever appended to the log, including the entries
+	 * not forced yet. It only grows, so it identifies the end of each 
+	 * entry.
+	 */
+	private volatile long written;
+
+	/**
+	 * The number of bytes appended to the log before the last checkpoint,
+	 * which are no longer in the log file.
+	 */
+	private volatile long start;
+
+	/**
+	 * The number of bytes appended to the log already forced to the storage
+	 * device. It is guarded by the monitor of this object.
+	 */
+	private long forced;
+
+	/**
+	 * True while a writer is forcing the log. It is guarded by the monitor
+	 * of this object.
+	 */
+	private boolean isForcing;
+
+	/**
+	 * The failure of the last periodic force, reported to the next writer,
+	 * or {@code null} if it did not fail.
+	 */
+	private volatile IOException forceFailure;
+
+	/**
+	 * The timer of the periodic forces, or {@code null} if the log is not
+	 * forced periodically.
+	 */
+	private Timer timer;
+
+	/**
+	 * Opens the log file of the given database file, writes the changes 
+	 * found in it to the given storage and empties it.
+	 */
+	private WriteAheadLog(String dbPath, Storage storage, String durability,
+			long checkpointSize) throws IOException {
+		this.dbPath = dbPath;
+		this.checkpointSize = checkpointSize;
+		this.isCommitDurable = COMMIT.equalsIgnoreCase(durability);
+
+		// A number of milliseconds means periodic forces.
+		long interval = 0;
+		if (!this.isCommitDurable && !OS.equalsIgnoreCase(durability)) {
+			try {
+				interval = Long.parseLong(durability.trim());
+			} catch (NumberFormatException e) {
+				throw new IOException("Invalid log durability: " + durability);
+			}
+		}
+
+		File logFile = new File(dbPath + EXTENSION);
+		if (logFile.exists()) {
+			replay(logFile, storage);
+		}
+		this.file = new RandomAccessFile(logFile, "rw");
+		this.channel = this.file.getChannel();
+		try {
+			storage.force();
+			this.channel.truncate(0);
+			this.channel.force(true);
+		} catch (IOException e) {
+			this.file.close();
+			throw e;
+		}
+
+		if (interval > 0) {
+			this.timer = new Timer("db-log-" + logFile.getName(), true);
+			this.timer.schedule(new TimerTask() {
+				@Override
+				public void run() {
+					try {
+						force(WriteAheadLog.this.written);
+					} catch (IOException e) {
+						WriteAheadLog.this.forceFailure = e;
+					}
+				}
+			}, interval, interval);
+		}
+	}
+
+	/**
+	 * Returns the log of the given database file, opening it if needed.
+	 * When the log is opened the changes found in it are written to the
+	 * given storage of the database file. Each call must be matched by a
+	 * call to {@link #close(Storage)}.
+	 * 
+	 * @param dbPath the path to the database file.
+	 * @param storage the storage of the database file.
+	 * @param durability <tt>commit</tt>, <tt>os</tt> or the interval between
+	 * forces in milliseconds.
+	 * @param checkpointSize the size of the log, in bytes, which triggers a
+	 * checkpoint.
+	 * @return the log of the database file.
+	 * @throws IOException if the log cannot be opened or replayed, or if 
+	 * the durability is not valid.
+	 */
+	public static WriteAheadLog forDatabase(String dbPath, Storage storage,
+			String durability, long checkpointSize) throws IOException {
+		File dbFile = new File(dbPath).getCanonicalFile();
+		synchronized (LOGS) {
+			WriteAheadLog log = LOGS.get(dbFile.getPath());
+			if (log == null) {
+				log = new WriteAheadLog(dbFile.getPath(), storage, durability,
+						checkpointSize);
+				LOGS.put(dbFile.getPath(), log);
+			}
+			log.users++;
+			return log;
+		}
+	}
+
+	/**
+	 * Forces the storage of the database file and empties the log, as a
+	 * checkpoint, for an instance of {@code Data} which no longer uses the
+	 * log. When the last of them closes the log, the periodic forces are 
+	 * stopped and the log file is closed, and the next call to 
+	 * {@code forDatabase} opens it again.
+	 * 
+	 * @param storage the storage of the database file.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void close(Storage storage) throws IOException {
+		synchronized (LOGS) {
+			if (--this.users == 0) {
+
+				// The log is opened again only once it is closed.
+				LOGS.remove(this.dbPath);
+				if (this.timer != null) {
+					this.timer.cancel();
+				}
+				try {
+					checkpoint(storage);
+				} finally {
+					this.file.close();
+				}
+				return;
+			}
+		}
+		checkpoint(storage);
+	}
+
+	/**
+	 * Writes the changes of the complete entries of the log to the storage.
+	 */
+	private static void replay(File logFile, Storage storage)
+			throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(logFile)));
+		try {
+			while (true) {
+				byte[] entry;
+				long checksum;
+				try {
+					int length = in.readInt();
+					if (length <= 0 || length > logFile.length()) {
+						return;
+					}
+					entry = new byte[length];
+					in.readFully(entry);
+					checksum = in.readLong();
+				} catch (EOFException e) {
+					return;
+				}
+				CRC32 crc = new CRC32();
+				crc.update(entry);
+				if (crc.getValue() != checksum) {
+					return;
+				}
+				ByteBuffer changes = ByteBuffer.wrap(entry);
+				while (changes.hasRemaining()) {
+					long position = changes.getLong();
+					byte[] bytes = new byte[changes.getInt()];
+					changes.get(bytes);
+					storage.write(position, bytes);
+				}
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Logs the change and writes it to the storage. With the
+	 * <tt>commit</tt> durability the change is written only after the log
+	 * is forced.
+	 * 
+	 * @param storage the storage of the database file.
+	 * @param position the file position of the change.
+	 * @param bytes the bytes written.
+	 * @throws IOException if the change cannot be logged or written.
+	 */
+	public void write(Storage storage, long position, byte[] bytes)
+			throws IOException {
+		write(storage, new long[] {position}, new byte[][] {bytes});
+	}
+
+	/**
+	 * Logs the changes in a single entry and writes them to the storage, so
+	 * after a system crash either all or none of them are written. With the
+	 * <tt>commit</tt> durability the changes are written only after the log
+	 * is forced, once for all of them. If the last periodic force failed,
+	 * that failure is thrown instead, since the changes logged before may 
+	 * be lost.
+	 * 
+	 * @param storage the storage of the database file.
+	 * @param positions the file position of each change.
+	 * @param bytes the bytes written by each change.
+	 * @throws IOException if the changes cannot be logged or written, or if
+	 * the last periodic force of the log failed.
+	 */
+	public void write(Storage storage, long[] positions, byte[][] bytes)
+			throws IOException {
+		IOException failure = this.forceFailure;
+		if (failure != null) {
+			this.forceFailure = null;
+			throw new IOException("The log could not be forced: " 
+					+ failure.getMessage(), failure);
+		}
+		this.checkpointLock.readLock().lock();
+		try {
+			long end = append(positions, bytes);
+			if (this.isCommitDurable) {
+				force(end);
+			}
+			for (int i = 0; i < positions.length; i++) {
+				storage.write(positions[i], bytes[i]);
+			}
+		} finally {
+			this.checkpointLock.readLock().unlock();
+		}
+		if (this.written - this.start >= this.checkpointSize) {
+			checkpoint(storage);
+		}
+	}
+
+	/**
+	 * Forces the storage of the database file and empties the log, if it
+	 * is not empty.
+	 * 
+	 * @param storage the storage of the database file.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void checkpoint(Storage storage) throws IOException {
+		this.checkpointLock.writeLock().lock();
+		try {
+			if (this.written == this.start) {
+				return;
+			}
+			storage.force();
+			synchronized (this.appendLock) {
+				this.channel.truncate(0);
+				this.channel.force(true);
+				this.start = this.written;
+			}
+		} finally {
+			this.checkpointLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Appends an entry with the changes to the end of the log, returning
+	 * the number of bytes appended to the log up to the end of the entry.
+	 */
+	private long append(long[] positions, byte[][] bytes) throws IOException {
+		int length = 0;
+		for (byte[] change : bytes) {
+			length += change.length + 12;
+		}
+		ByteBuffer entry = ByteBuffer.allocate(length + 12);
+		entry.putInt(length);
+		for (int i = 0; i < positions.length; i++) {
+			entry.putLong(positions[i]);
+			entry.putInt(bytes[i].length);
+			entry.put(bytes[i]);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(entry.array(), 4, length);
+		entry.putLong(crc.getValue());
+		entry.flip();
+
+		synchronized (this.appendLock) {
+			long offset = this.written - this.start;
+			while (entry.hasRemaining()) {
+				this.channel.write(entry, offset + entry.position());
+			}
+			this.written += entry.capacity();
+			return this.written;
+		}
+	}
+
+	/**
+	 * Waits until the log is forced at least up to the given size. If no
+	 * other writer is forcing the log, this writer forces it for all the
+	 * entries appended so far.
+	 */
+	private void force(long end) throws IOException {
+		long target;
+		synchronized (this) {
+			while (this.forced < end) {
+				if (!this.isForcing) {
+					break;
+				}
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted waiting for the log.");
+				}
+			}
+			if (this.forced >= end) {
+				return;
+			}
+			this.isForcing = true;
+			target = this.written;
+		}
+
+		boolean isForced = false;
+		try {
+			this.channel.force(false);
+			isForced = true;
+		} finally {
+			synchronized (this) {
+				this.isForcing = false;
+				if (isForced && target > this.forced) {
+					this.forced = target;
+				}
+				notifyAll();
+			}
+		}
+	}
+}
@@ -1,32 +1,35 @@
-/*
- * ApplicationMode.java		
- * 
- * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
- */
-
-package suncertify.gui;
-
-
-/**
- * This <tt>enum</tt> specifies all possible applications modes.
- * 
- * @author Pedro Oliveira
- * @version 1.0
- */
-public enum ApplicationMode {
-
-    /**
-     * Direct connection for standalone application.
-     */
-    STANDALONE,
-
-    /**
-     * Connection using network to interact with database. 
-     */
-    NETWORK,
-
-    /**
-     * Server application. 
-     */
-    SERVER;	
-}
+/*
+ * ApplicationMode.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.gui;
+
+
+/**
+ * This <tt>enum</tt> specifies all possible applications modes.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.1
+ * @see Transport
+ */
+public enum ApplicationMode {
+
+    /**
+     * Direct connection for standalone application.
+     */
+    STANDALONE,
+
+    /**
+     * Connection using network to interact with database, through the
+     * transport of the configuration options. 
+     */
+    NETWORK,
+
+    /**
+     * Server application, listening through the transport of the 
+     * configuration options. 
+     */
+    SERVER;	
+}
@@ -1,257 +1,311 @@
-/*
- * Controller.java		
- * 
- * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
- */
-
-package suncertify.gui;
-
-import java.io.IOException;
-
-import javax.swing.JOptionPane;
-
-import suncertify.db.DB;
-import suncertify.db.DuplicateKeyException;
-import suncertify.db.Record;
-import suncertify.db.RecordNotFoundException;
-import suncertify.db.InvalidSchemaException;
-import suncertify.db.UnknownDBException;
-
-
-/**
- * This class handles all requests from the client user interface to
- * the data model. 
- * 
- * @author Pedro Oliveira
- * @version 1.3
- * @see ConfigOptions
- * @see RecordTableModel
- * @see ClientGui
- * @see GuiException
- */
-public class Controller {
-
-	/**
-	 * Reference to the database interface. 
-	 */
-	private DB connection;
-
-	/**
-	 * The {@code String} title in a message of a booking error.
-	 */
-	private static final String BOOK_ERR_TITLE = "Booking not possible";
-
-	/**
-	 * The {@code String} title in a message of a connection error.
-	 */
-	private static final String CONN_ERR_TITLE = "Could not get connection";
-
-	/**
-	 * The {@code String} title in a message of a search error.
-	 */
-	private static final String SRCH_ERR_TITLE = "Search was not possible";    
-
-	/**
-	 * The {@code JOptionPane} error message type.
-	 */
-	private static final int ERR_MSG_TYPE = JOptionPane.ERROR_MESSAGE;
-
-	/**
-	 * The {@code JOptionPane} warning message type.
-	 */
-	private static final int WARN_MSG_TYPE = JOptionPane.WARNING_MESSAGE;    
-
-	/**
-	 * Creates an instance of the {@code Controller} class using the options
-	 * configured by the user, that are used in the process of establishing
-	 * a database connection.
-	 * 
-	 * @param options the configuration options selected by the user, used
-	 * in the database connection.
-	 * @throws GuiException Thrown if a connection to the database was not
-	 * possible.
-	 */
-	public Controller(ConfigOptions options) throws GuiException {
-		try {
-			this.connection = DBConnector.getConnection(options);
-		} catch (UnknownDBException e) {
-			String msg = "Unknown database! Expecting a different schema.";
-			throw new GuiException(CONN_ERR_TITLE, msg, ERR_MSG_TYPE);
-		} catch (InvalidSchemaException e) {
-			String msg = "Database with an invalid schema.";
-			throw new GuiException(CONN_ERR_TITLE, msg, ERR_MSG_TYPE);
-		} catch (IOException e) {
-			String msg = "Error accessing database. Reason: " + e.getMessage();
-			throw new GuiException(CONN_ERR_TITLE, msg, ERR_MSG_TYPE);
-		}	
-	} 
-
-	/**
-	 * Returns the {@code RecordTableModel} containing all records that met the
-	 * search criteria. All fields in the criteria array are evaluated for 
-	 * matching the start of the respective field. A <tt>null</tt> value 
-	 * matches any field value.
-	 *
-	 * @param criteria The user defined search String
-	 * @return the {@code RecordTableModel} containing all records that met the
-	 * search criteria.
-	 * @throws GuiException Indicates a problem in the database or network
-	 * connection.
-	 */
-	public RecordTableModel search(String[] criteria) throws GuiException {
-		RecordTableModel tableModel = new RecordTableModel();
-
-		// Get record numbers that match the specified criteria.
-		int[] recNumbers = this.connection.find(criteria);
-
-		// Add records to the table model.
-		try {
-			for (int recNo : recNumbers) {
-				String[] data = this.connection.read(recNo);
-				Record record = new Record(data);
-				tableModel.addRecord(record);
-			}
-		} catch (RecordNotFoundException e) {
-			String msg = "Records not found!";
-			throw new GuiException(SRCH_ERR_TITLE, msg, ERR_MSG_TYPE); 
-		}        
-		return tableModel;
-	}
-
-	/**
-	 * Retrieves the {@code RecordTableModel} with all records from the 
-	 * database.
-	 *
-	 * @return the {@code RecordTableModel} containing all records.
-	 * @throws GuiException Indicates a problem in the database or network
-	 * connection.
-	 */
-	public RecordTableModel getAllRecords() throws GuiException {
-		RecordTableModel tableModel = new RecordTableModel();
-		
-		/*
-		 * Assumption: number of columns in the table model match the database
-		 * number of columns.
-		 */
-		int numberOfColumns = tableModel.getColumnCount();
-
-		// Default values are "null" as needed for the search method.
-		String[] criteria = new String[numberOfColumns];	 
-		return search(criteria);
-	}  
-
-	/**
-	 * This method performs the booking operation in the database.
-	 * 
-	 * @param record the {@code Record} to book in the database.
-	 * @throws GuiException Indicates a problem in the database or network
-	 * connection.
-	 */
-	public void bookRecord(Record record) throws GuiException {
-		updateRecord(record, true);
-	}
-
-	/**
-	 * This method performs the returning operation in the database.
-	 * 
-	 * @param record the {@code Record} to return in the database.
-	 * @throws GuiException Indicates a problem in the database or network
-	 * connection.
-	 */
-	public void returnRecord(Record record) throws GuiException {
-		updateRecord(record, false);
-	}    
-
-	/**
-	 * This method performs the booking or return operation depending on the
-	 * <tt>isBooking</tt> flag. A <tt>true</tt> value is used for the 
-	 * booking operation and the <tt>false</tt> value for the return. 
-	 */
-	private void updateRecord(Record record, boolean isBooking) 
-			throws GuiException {
-		long cookie = 0L;
-
-		// ASSUMPTION: Is never going to be possible a change in the pr.keys.
-		Record pkRecord = record.getPkRecord();
-		int recNo = 0;
-		try {
-			recNo = getRecordNumber(pkRecord);
-		} catch (RecordNotFoundException e1) {
-			String msg = "Record is not available any more. " +
-					"Refresh your search.";
-			throw new GuiException(BOOK_ERR_TITLE, msg, WARN_MSG_TYPE);	    
-		} catch (DuplicateKeyException e1) {
-			String msg = "Inconsistent database! Reason: primary key " +
-					"violation. Please contact the Database Administrator";
-			throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);	    
-		}
-
-		// 
-		try {														
-			cookie = this.connection.lock(recNo);				    
-			/*
-			 * Is necessary to check if the record was not changed
-			 * or deleted after the last search.
-			 */			
-			String[] dbData = this.connection.read(recNo);
-			Record dbRecord = new Record(dbData);
-
-			if (isBooking) {							// Booking a record.
-				if (dbRecord.isAvailable()) {
-					String[] data = record.getStringArray();
-					this.connection.update(recNo, data, cookie);
-				} else {
-					String msg = "Record is not available any more. " 
-							+ "Refresh your search.";
-					throw new GuiException(BOOK_ERR_TITLE, msg, WARN_MSG_TYPE);
-				}		
-			} else {									// Returning a record.
-				
-				// Validation to verify database consistency.
-				if (dbRecord.isAvailable()) {
-					String msg = "Record is already available. " 
-							+ "No action taken.";
-					throw new GuiException(BOOK_ERR_TITLE, msg, WARN_MSG_TYPE);
-				} else {
-					String[] data = record.getStringArray();
-					this.connection.update(recNo, data, cookie);
-				}				
-			}	    	    	    
-		} catch(RecordNotFoundException e) {
-			String msg = "Record not found! Refresh your search.";
-			throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);
-		} catch(SecurityException e) {
-			String msg = "Concurrency error! Please retry the operation.";
-			throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);
-		} finally {
-			try {
-				this.connection.unlock(recNo, cookie);
-			} catch(RecordNotFoundException e) {
-				String msg = "Record not found! Refresh your search.";
-				throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);
-			} catch(SecurityException e) {
-				String msg = "Unlocking error!";
-				throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);
-			}
-		}
-	}
-
-	/**
-	 * Returns the record number of the given {@code Record}.
-	 */
-	private int getRecordNumber(Record record) throws RecordNotFoundException,
-			DuplicateKeyException {
-		int recNo = 0;
-
-		// Get the record number for the given record.
-		int[] records = this.connection.find(record.getStringArray());
-		if (records.length == 0) {
-			throw new RecordNotFoundException();
-		} else if (records.length != 1) {
-			throw new DuplicateKeyException();	// Inconsistent database.
-		} else {
-			recNo = records[0];
-		}
-		return recNo;
-	}
-}
+/*
+ * Controller.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.gui;
+
+import java.io.IOException;
+
+import java.util.Map;
+import java.util.Properties;
+
+import javax.swing.JOptionPane;
+
+import suncertify.db.DeadlockException;
+import suncertify.db.DuplicateKeyException;
+import suncertify.db.ExtendedDB;
+import suncertify.db.Record;
+import suncertify.db.RecordNotFoundException;
+import suncertify.db.ResultPage;
+import suncertify.db.StorageException;
+import suncertify.db.InvalidSchemaException;
+import suncertify.db.UnknownDBException;
+import suncertify.utils.PropertyHelper;
+import suncertify.utils.Utilities;
+
+
+/**
+ * This class handles all requests from the client user interface to
+ * the data model. 
+ * 
+ * @author Pedro Oliveira
+ * @version 1.12
+ * @see ConfigOptions
+ * @see RecordTableModel
+ * @see ClientGui
+ * @see GuiException
+ */
+public class Controller {
+
+	/**
+	 * Reference to the database interface. 
+	 */
+	private ExtendedDB connection;
+
+	/**
+	 * The {@code String} title in a message of a booking error.
+	 */
+	private static final String BOOK_ERR_TITLE = "Booking not possible";
+
+	/**
+	 * The {@code String} title in a message of a connection error.
+	 */
+	private static final String CONN_ERR_TITLE = "Could not get connection";
+
+	/**
+	 * The {@code String} title in a message of a search error.
+	 */
+	private static final String SEARCH_ERR_TITLE = "Search not possible";
+
+	/**
+	 * The {@code JOptionPane} error message type.
+	 */
+	private static final int ERR_MSG_TYPE = JOptionPane.ERROR_MESSAGE;
+
+	/**
+	 * The {@code JOptionPane} warning message type.
+	 */
+	private static final int WARN_MSG_TYPE = JOptionPane.WARNING_MESSAGE;    
+
+	/**
+	 * The maximum number of records fetched from the database at once.
+	 */
+	private static final int PAGE_SIZE;
+
+	/**
+	 * This initializer block loads property values from the application
+	 * properties file.
+	 */
+	static {	  
+		Properties prop;
+		try {
+			prop = Utilities.loadProperties("suncertify.properties");
+		} catch (IOException e) {
+			prop = System.getProperties();
+		}			
+		PropertyHelper propHelper = new PropertyHelper(prop);	
+		PAGE_SIZE = propHelper.getPropertyAsInteger("swing.pageSize", 100);
+	}
+
+	/**
+	 * Creates an instance of the {@code Controller} class using the options
+	 * configured by the user, that are used in the process of establishing
+	 * a database connection.
+	 * 
+	 * @param options the configuration options selected by the user, used
+	 * in the database connection.
+	 * @throws GuiException Thrown if a connection to the database was not
+	 * possible.
+	 */
+	public Controller(ConfigOptions options) throws GuiException {
+		try {
+			this.connection = DBConnector.getConnection(options);
+		} catch (UnknownDBException e) {
+			String msg = "Unknown database! Expecting a different schema.";
+			throw new GuiException(CONN_ERR_TITLE, msg, ERR_MSG_TYPE);
+		} catch (InvalidSchemaException e) {
+			String msg = "Database with an invalid schema.";
+			throw new GuiException(CONN_ERR_TITLE, msg, ERR_MSG_TYPE);
+		} catch (IOException e) {
+			String msg = "Error accessing database. Reason: " + e.getMessage();
+			throw new GuiException(CONN_ERR_TITLE, msg, ERR_MSG_TYPE);
+		}	
+	} 
+
+	/**
+	 * Returns the {@code RecordTableModel} containing the first page of the 
+	 * records that met the search criteria. All fields in the criteria array
+	 * are evaluated for matching the start of the respective field. A 
+	 * <tt>null</tt> value matches any field value. The following pages are
+	 * added with {@link #searchMore(RecordTableModel)}.
+	 *
+	 * @param criteria The user defined search String
+	 * @return the {@code RecordTableModel} containing the first records that
+	 * met the search criteria.
+	 * @throws GuiException Indicates a problem in the database or network
+	 * connection.
+	 */
+	public RecordTableModel search(String[] criteria) throws GuiException {
+		RecordTableModel tableModel = new RecordTableModel();
+		addPage(tableModel, criteria, ResultPage.FIRST);
+		return tableModel;
+	}
+
+	/**
+	 * Adds the next page of the search which filled the given
+	 * {@code RecordTableModel} to it, if the search has more records.
+	 * 
+	 * @param tableModel the {@code RecordTableModel} filled by a search.
+	 * @throws GuiException Indicates a problem in the database or network
+	 * connection.
+	 */
+	public void searchMore(RecordTableModel tableModel) throws GuiException {
+		if (!tableModel.hasMoreRecords()) {
+			return;
+		}
+		int firstRow = tableModel.getRowCount();
+		addPage(tableModel, tableModel.getCriteria(), 
+				tableModel.getNextToken());
+		if (tableModel.getRowCount() > firstRow) {
+			tableModel.fireTableRowsInserted(firstRow, 
+					tableModel.getRowCount() - 1);
+		}
+	}
+
+	/**
+	 * Retrieves the {@code RecordTableModel} with the first page of all 
+	 * records from the database.
+	 *
+	 * @return the {@code RecordTableModel} containing the first records.
+	 * @throws GuiException Indicates a problem in the database or network
+	 * connection.
+	 */
+	public RecordTableModel getAllRecords() throws GuiException {
+		RecordTableModel tableModel = new RecordTableModel();
+		
+		/*
+		 * Assumption: number of columns in the table model match the database
+		 * number of columns.
+		 */
+		int numberOfColumns = tableModel.getColumnCount();
+
+		// Default values are "null" as needed for the search method.
+		String[] criteria = new String[numberOfColumns];	 
+		return search(criteria);
+	}  
+
+	/**
+	 * This method performs the booking operation in the database.
+	 * 
+	 * @param record the {@code Record} to book in the database.
+	 * @throws GuiException Indicates a problem in the database or network
+	 * connection.
+	 */
+	public void bookRecord(Record record) throws GuiException {
+		updateRecord(record, true);
+	}
+
+	/**
+	 * This method books the records in the given rows of the table model
+	 * for the customer, in a single call to the database. Either all or 
+	 * none of the records are booked, except after a crash of the database
+	 * without the write-ahead log.
+	 * 
+	 * @param tableModel the {@code RecordTableModel} with the records.
+	 * @param rows the rows of the records to book.
+	 * @param customerId the customer who books the records.
+	 * @throws GuiException Indicates that a record is no longer available,
+	 * or a problem in the database or network connection.
+	 */
+	public void bookRecords(RecordTableModel tableModel, int[] rows, 
+			String customerId) throws GuiException {
+		int[] recNos = new int[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			recNos[i] = tableModel.getRecordNumber(rows[i]);
+		}
+		boolean isBooked;
+		try {
+			isBooked = this.connection.bookRecords(recNos, customerId);
+		} catch (RecordNotFoundException e) {
+			String msg = "A record is not available any more. " +
+					"Refresh your search.";
+			throw new GuiException(BOOK_ERR_TITLE, msg, WARN_MSG_TYPE);	    
+		} catch (SecurityException e) {
+			String msg = "Concurrency error! Please retry the operation.";
+			throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);
+		} catch (DeadlockException e) {
+			String msg = "Concurrency error! Please retry the operation.";
+			throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);
+		}
+
+		if (!isBooked) {
+			String msg = "A record is already booked. No record was " 
+					+ "booked, refresh your search.";
+			throw new GuiException(BOOK_ERR_TITLE, msg, WARN_MSG_TYPE);
+		}
+	}
+
+	/**
+	 * This method performs the returning operation in the database.
+	 * 
+	 * @param record the {@code Record} to return in the database.
+	 * @throws GuiException Indicates a problem in the database or network
+	 * connection.
+	 */
+	public void returnRecord(Record record) throws GuiException {
+		updateRecord(record, false);
+	}    
+
+	/**
+	 * This method performs the booking or return operation depending on the
+	 * <tt>isBooking</tt> flag. A <tt>true</tt> value is used for the 
+	 * booking operation and the <tt>false</tt> value for the return. <p>
+	 * 
+	 * The record is checked and changed by the database in a single call,
+	 * using the customer ID in the availability field of the given record:
+	 * a booking succeeds only if the record is still available and a return
+	 * only if the record is still booked by that customer.
+	 */
+	private void updateRecord(Record record, boolean isBooking) 
+			throws GuiException {
+
+		// ASSUMPTION: Is never going to be possible a change in the pr.keys.
+		String[] key = record.clearNonKeyValues();
+		String customerId = record.getAvailability();
+		boolean isChanged;
+		try {
+			if (isBooking) {							// Booking a record.
+				isChanged = this.connection.bookIfAvailable(key, customerId);
+			} else {									// Returning a record.
+				isChanged = this.connection.returnIfOwned(key, customerId);
+			}
+		} catch (RecordNotFoundException e) {
+			String msg = "Record is not available any more. " +
+					"Refresh your search.";
+			throw new GuiException(BOOK_ERR_TITLE, msg, WARN_MSG_TYPE);	    
+		} catch (DuplicateKeyException e) {
+			String msg = "Inconsistent database! Reason: primary key " +
+					"violation. Please contact the Database Administrator";
+			throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);	    
+		} catch (SecurityException e) {
+			String msg = "Concurrency error! Please retry the operation.";
+			throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);
+		} catch (DeadlockException e) {
+			String msg = "Concurrency error! Please retry the operation.";
+			throw new GuiException(BOOK_ERR_TITLE, msg, ERR_MSG_TYPE);
+		}
+
+		if (!isChanged && isBooking) {
+			String msg = "Record is not available any more. " 
+					+ "Refresh your search.";
+			throw new GuiException(BOOK_ERR_TITLE, msg, WARN_MSG_TYPE);
+		} else if (!isChanged) {
+			String msg = "Record is no longer booked by this customer. " 
+					+ "No action taken.";
+			throw new GuiException(BOOK_ERR_TITLE, msg, WARN_MSG_TYPE);
+		}
+	}
+
+	/**
+	 * Adds to the table model the page of the records that match the 
+	 * criteria starting at the given token, in a single call.
+	 */
+	private void addPage(RecordTableModel tableModel, String[] criteria, 
+			long token) throws GuiException {
+		ResultPage page;
+		try {
+			page = this.connection.findPage(criteria, token, 0, PAGE_SIZE);
+		} catch (StorageException e) {
+			String msg = "Error accessing database. Reason: " 
+					+ e.getMessage();
+			throw new GuiException(SEARCH_ERR_TITLE, msg, ERR_MSG_TYPE);
+		}
+		for (Map.Entry<Integer, String[]> entry 
+				: page.getRecords().entrySet()) {
+			tableModel.addRecord(entry.getKey(), new Record(entry.getValue()));
+		}
+		tableModel.setSearch(criteria, page.getNextToken());
+	}
+}
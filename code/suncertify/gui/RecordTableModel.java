@@ -1,110 +1,183 @@
-/*
- * RecordTableModel.java		
- * 
- * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
- */
-
-package suncertify.gui;
-
-import java.io.IOException;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Properties;
-
-import javax.swing.JTable;
-import javax.swing.table.AbstractTableModel;
-
-import suncertify.db.Record;
-import suncertify.utils.PropertyHelper;
-import suncertify.utils.Utilities;
-
-
-/**
- * 
- * 
- * @author Pedro Oliveira
- * @version 1.2 
- * @see AbstractTableModel
- * @see JTable
- * @see Record
- */
-public class RecordTableModel extends AbstractTableModel {
-
-	/**
-	 * Default serial version UID. 
-	 */
-	private static final long serialVersionUID = 1L;
-
-	/**
-	 * This string array represents the table model header.
-	 */
-	private static final String[] COLUMN_NAMES;    
-
-	/**
-	 * This initializer block loads property values from the application
-	 * properties file.
-	 */
-	static {	  
-		Properties prop;
-		try {
-			prop = Utilities.loadProperties("suncertify.properties");
-		} catch (IOException e) {
-			prop = System.getProperties();
-		}			
-		PropertyHelper propHelper = new PropertyHelper(prop);	
-		COLUMN_NAMES = propHelper.getPropertiesAsStringArray("swing.columns");
-	}
-
-	/**
-	 * The list of records in the table model.
-	 */
-	private List<Record> records = new ArrayList<Record>();		
-
-	@Override
-	public int getColumnCount() {	
-		return COLUMN_NAMES.length;
-	}
-
-	@Override
-	public String getColumnName(int column) {
-		return COLUMN_NAMES[column];
-	}
-
-	@Override
-	public int getRowCount() {
-		return this.records.size();
-	}
-
-	@Override
-	public Object getValueAt(int row, int column) {
-		Record record = this.records.get(row);
-		return record.get(column);
-	}
-
-	@Override
-	public void setValueAt(Object obj, int row, int column) {
-		Record record = this.records.get(row);
-		record.set(column, (String) obj);
-	}    
-
-	/**
-	 * This method adds a {@code Record} to the table model.
-	 * 
-	 * @param record the {@code Record} to add to table model.
-	 */
-	public void addRecord(Record record) {
-		this.records.add(record);
-	}   
-
-	/**
-	 * Returns the {@code Record} for the given row of this objects table 
-	 * model.
-	 * 
-	 * @param row the row of the {@code Record} to return.
-	 * @return the record at the specified row in this table model.
-	 */
-	public Record getRecord(int row) {
-		return this.records.get(row);
-	}  	
-}
+/*
+ * RecordTableModel.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.gui;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+
+import suncertify.db.Record;
+import suncertify.db.ResultPage;
+import suncertify.utils.PropertyHelper;
+import suncertify.utils.Utilities;
+
+
+/**
+ * 
+ * 
+ * @author Pedro Oliveira
+ * @version 1.4 
+ * @see AbstractTableModel
+ * @see JTable
+ * @see Record
+ * @see ResultPage
+ */
+public class RecordTableModel extends AbstractTableModel {
+
+	/**
+	 * Default serial version UID. 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * This string array represents the table model header.
+	 */
+	private static final String[] COLUMN_NAMES;    
+
+	/**
+	 * This initializer block loads property values from the application
+	 * properties file.
+	 */
+	static {	  
+		Properties prop;
+		try {
+			prop = Utilities.loadProperties("suncertify.properties");
+		} catch (IOException e) {
+			prop = System.getProperties();
+		}			
+		PropertyHelper propHelper = new PropertyHelper(prop);	
+		COLUMN_NAMES = propHelper.getPropertiesAsStringArray("swing.columns");
+	}
+
+	/**
+	 * The list of records in the table model.
+	 */
+	private List<Record> records = new ArrayList<Record>();		
+
+	/**
+	 * The record number of each record in the table model.
+	 */
+	private List<Integer> recNumbers = new ArrayList<Integer>();
+
+	/**
+	 * The criteria of the search which filled the table model.
+	 */
+	private String[] criteria;
+
+	/**
+	 * The token of the next page of the search, or {@code ResultPage.END} 
+	 * if all the records of the search are in the table model.
+	 */
+	private long nextToken = ResultPage.END;
+
+	@Override
+	public int getColumnCount() {	
+		return COLUMN_NAMES.length;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return COLUMN_NAMES[column];
+	}
+
+	@Override
+	public int getRowCount() {
+		return this.records.size();
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		Record record = this.records.get(row);
+		return record.get(column);
+	}
+
+	@Override
+	public void setValueAt(Object obj, int row, int column) {
+		Record record = this.records.get(row);
+		record.set(column, (String) obj);
+	}    
+
+	/**
+	 * This method adds a {@code Record} to the table model.
+	 * 
+	 * @param recNo the record number of the {@code Record}.
+	 * @param record the {@code Record} to add to table model.
+	 */
+	public void addRecord(int recNo, Record record) {
+		this.records.add(record);
+		this.recNumbers.add(recNo);
+	}   
+
+	/**
+	 * Returns the {@code Record} for the given row of this objects table 
+	 * model.
+	 * 
+	 * @param row the row of the {@code Record} to return.
+	 * @return the record at the specified row in this table model.
+	 */
+	public Record getRecord(int row) {
+		return this.records.get(row);
+	}  	
+
+	/**
+	 * Returns the record number of the {@code Record} for the given row of
+	 * this objects table model.
+	 * 
+	 * @param row the row of the {@code Record}.
+	 * @return the record number of the record at the specified row.
+	 */
+	public int getRecordNumber(int row) {
+		return this.recNumbers.get(row);
+	}
+
+	/**
+	 * Sets the search which filled this table model and the token of its 
+	 * next page.
+	 * 
+	 * @param criteria the criteria of the search.
+	 * @param nextToken the token of the next page of the search, or 
+	 * {@code ResultPage.END} if there are no more records.
+	 */
+	public void setSearch(String[] criteria, long nextToken) {
+		this.criteria = criteria;
+		this.nextToken = nextToken;
+	}
+
+	/**
+	 * Returns the criteria of the search which filled this table model.
+	 * 
+	 * @return the criteria of the search.
+	 */
+	public String[] getCriteria() {
+		return this.criteria;
+	}
+
+	/**
+	 * Returns the token of the next page of the search which filled this
+	 * table model.
+	 * 
+	 * @return the token of the next page of the search.
+	 */
+	public long getNextToken() {
+		return this.nextToken;
+	}
+
+	/**
+	 * Returns true if the search which filled this table model may have 
+	 * more records than the ones in the table model.
+	 * 
+	 * @return <tt>true</tt> if there is a next page of the search.
+	 */
+	public boolean hasMoreRecords() {
+		return this.nextToken != ResultPage.END;
+	}
+}
@@ -0,0 +1,30 @@
+/*
+ * Transport.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.gui;
+
+
+/**
+ * This <tt>enum</tt> specifies the network transports between the clients
+ * and the server, used in the <tt>NETWORK</tt> and <tt>SERVER</tt>
+ * application modes.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see ApplicationMode
+ */
+public enum Transport {
+
+    /**
+     * Remote method invocation through the RMI registry. 
+     */
+    RMI,
+
+    /**
+     * Binary protocol over a single connection, served by a selector.
+     */
+    NIO;
+}
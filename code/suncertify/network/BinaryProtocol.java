@@ -0,0 +1,493 @@
+/*
+ * BinaryProtocol.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * The binary protocol between the {@code NioAdapter} clients and the
+ * {@code NioServer}. <p>
+ * 
+ * Every message is a frame with its length, as a four byte integer,
+ * followed by that many bytes. A request starts with an id chosen by the
+ * client and the operation code, and a response with the id of its request
+ * and the status code, followed by the arguments or the result of the
+ * operation: <ul>
+ * <li>integers and longs in big-endian order, and booleans as a byte;
+ * <li>strings as their length in bytes and their <tt>UTF-8</tt> bytes;
+ * <li>arrays as their length and their elements;
+ * <li>maps as their size and each key followed by its value.</ul>
+ * 
+ * A client may send a request while others are being executed, and the
+ * responses are sent as the requests finish, so their ids tell which
+ * request each response is for. <p>
+ * 
+ * A length of -1 stands for <tt>null</tt>. A response with an error status
+ * has the message of the exception as a string. A length which is negative
+ * otherwise, or too large for the rest of the frame, is rejected before
+ * anything is allocated for it.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.3
+ * @see NioServer
+ * @see NioAdapter
+ */
+class BinaryProtocol {
+
+	/**
+	 * The maximum length of a frame, which guards the server from clients
+	 * which do not follow the protocol.
+	 */
+	public static final int MAX_FRAME = 16 * 1024 * 1024;
+
+	/**
+	 * The operation code of {@code read}.
+	 */
+	public static final byte READ = 1;
+
+	/**
+	 * The operation code of {@code update}.
+	 */
+	public static final byte UPDATE = 2;
+
+	/**
+	 * The operation code of {@code delete}.
+	 */
+	public static final byte DELETE = 3;
+
+	/**
+	 * The operation code of {@code find}.
+	 */
+	public static final byte FIND = 4;
+
+	/**
+	 * The operation code of {@code create}.
+	 */
+	public static final byte CREATE = 5;
+
+	/**
+	 * The operation code of {@code lock}.
+	 */
+	public static final byte LOCK = 6;
+
+	/**
+	 * The operation code of {@code unlock}.
+	 */
+	public static final byte UNLOCK = 7;
+
+	/**
+	 * The operation code of {@code readMany}.
+	 */
+	public static final byte READ_MANY = 8;
+
+	/**
+	 * The operation code of {@code findRecords}.
+	 */
+	public static final byte FIND_RECORDS = 9;
+
+	/**
+	 * The operation code of {@code findPage}.
+	 */
+	public static final byte FIND_PAGE = 10;
+
+	/**
+	 * The operation code of {@code bookIfAvailable}.
+	 */
+	public static final byte BOOK_IF_AVAILABLE = 11;
+
+	/**
+	 * The operation code of {@code returnIfOwned}.
+	 */
+	public static final byte RETURN_IF_OWNED = 12;
+
+	/**
+	 * The operation code of {@code bookRecords}.
+	 */
+	public static final byte BOOK_RECORDS = 13;
+
+	/**
+	 * The operation code of {@code readVersioned}.
+	 */
+	public static final byte READ_VERSIONED = 14;
+
+	/**
+	 * The operation code of {@code updateIfVersion}.
+	 */
+	public static final byte UPDATE_IF_VERSION = 15;
+
+	/**
+	 * The operation code of {@code tryLock}.
+	 */
+	public static final byte TRY_LOCK = 16;
+
+	/**
+	 * The operation code of {@code renewLock}.
+	 */
+	public static final byte RENEW_LOCK = 17;
+
+	/**
+	 * The operation code of {@code lockShared}.
+	 */
+	public static final byte LOCK_SHARED = 18;
+
+	/**
+	 * The operation code of {@code upgradeLock}.
+	 */
+	public static final byte UPGRADE_LOCK = 19;
+
+	/**
+	 * The status of an operation which succeeded.
+	 */
+	public static final byte OK = 0;
+
+	/**
+	 * The status of an operation which threw a {@code RecordNotFoundException}.
+	 */
+	public static final byte RECORD_NOT_FOUND = 1;
+
+	/**
+	 * The status of an operation which threw a {@code DuplicateKeyException}.
+	 */
+	public static final byte DUPLICATE_KEY = 2;
+
+	/**
+	 * The status of an operation which threw a {@code SecurityException}.
+	 */
+	public static final byte SECURITY = 3;
+
+	/**
+	 * The status of an operation which threw a {@code VersionConflictException}.
+	 */
+	public static final byte VERSION_CONFLICT = 4;
+
+	/**
+	 * The status of an operation which threw a {@code DeadlockException}.
+	 */
+	public static final byte DEADLOCK = 5;
+
+	/**
+	 * The status of an operation which threw an {@code IllegalArgumentException}.
+	 */
+	public static final byte ILLEGAL_ARGUMENT = 6;
+
+	/**
+	 * The status of an operation which failed for any other reason.
+	 */
+	public static final byte FAILURE = 7;
+
+	/**
+	 * The status of an operation which threw a {@code StorageException}.
+	 */
+	public static final byte STORAGE = 8;
+
+	/**
+	 * The encoding of the strings.
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * This class is a utility class so no constructor should ever be
+	 * invoked.
+	 */
+	private BinaryProtocol() { }
+
+	/**
+	 * Reads a string from the buffer.
+	 * 
+	 * @param in the buffer positioned at the string.
+	 * @return the string, or <tt>null</tt>.
+	 * @throws IllegalArgumentException if the length is not valid.
+	 */
+	public static String getString(ByteBuffer in) {
+		int length = getLength(in, 1);
+		if (length < 0) {
+			return null;
+		}
+		String value = new String(in.array(), in.arrayOffset()
+				+ in.position(), length, UTF8);
+		in.position(in.position() + length);
+		return value;
+	}
+
+	/**
+	 * Reads an array of strings from the buffer.
+	 * 
+	 * @param in the buffer positioned at the array.
+	 * @return the array, or <tt>null</tt>.
+	 * @throws IllegalArgumentException if a length is not valid.
+	 */
+	public static String[] getStrings(ByteBuffer in) {
+		int length = getLength(in, 4);
+		if (length < 0) {
+			return null;
+		}
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = getString(in);
+		}
+		return values;
+	}
+
+	/**
+	 * Reads an array of arrays of strings from the buffer.
+	 * 
+	 * @param in the buffer positioned at the array.
+	 * @return the array, or <tt>null</tt>.
+	 * @throws IllegalArgumentException if a length is not valid.
+	 */
+	public static String[][] getStringArrays(ByteBuffer in) {
+		int length = getLength(in, 4);
+		if (length < 0) {
+			return null;
+		}
+		String[][] values = new String[length][];
+		for (int i = 0; i < length; i++) {
+			values[i] = getStrings(in);
+		}
+		return values;
+	}
+
+	/**
+	 * Reads an array of integers from the buffer.
+	 * 
+	 * @param in the buffer positioned at the array.
+	 * @return the array, or <tt>null</tt>.
+	 * @throws IllegalArgumentException if the length is not valid.
+	 */
+	public static int[] getInts(ByteBuffer in) {
+		int length = getLength(in, 4);
+		if (length < 0) {
+			return null;
+		}
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = in.getInt();
+		}
+		return values;
+	}
+
+	/**
+	 * Reads the fields of some records by record number from the buffer.
+	 * 
+	 * @param in the buffer positioned at the records.
+	 * @return the records, or <tt>null</tt>.
+	 * @throws IllegalArgumentException if a length is not valid.
+	 */
+	public static SortedMap<Integer, String[]> getRecords(ByteBuffer in) {
+		int size = getLength(in, 8);
+		if (size < 0) {
+			return null;
+		}
+		SortedMap<Integer, String[]> records =
+				new TreeMap<Integer, String[]>();
+		for (int i = 0; i < size; i++) {
+			int recNo = in.getInt();
+			records.put(recNo, getStrings(in));
+		}
+		return records;
+	}
+
+	/**
+	 * Reads a boolean from the buffer.
+	 * 
+	 * @param in the buffer positioned at the boolean.
+	 * @return the boolean.
+	 */
+	public static boolean getBoolean(ByteBuffer in) {
+		return in.get() != 0;
+	}
+
+	/**
+	 * Reads a length from the buffer, checking that it is -1 or that the
+	 * rest of the buffer has room for that many elements of the given
+	 * minimum size.
+	 */
+	private static int getLength(ByteBuffer in, int minSize) {
+		int length = in.getInt();
+		if (length < -1 || length > in.remaining() / minSize) {
+			throw new IllegalArgumentException("Invalid length: " + length);
+		}
+		return length;
+	}
+
+	/**
+	 * A message being written, which becomes a frame when it is complete.
+	 * The frame is written once into a single buffer, with room for its
+	 * length and the id of the request at the start.
+	 */
+	static class Message extends ByteArrayOutputStream {
+
+		/**
+		 * The stream which writes the values to the message.
+		 */
+		private final DataOutputStream out = new DataOutputStream(this);
+
+		/**
+		 * Creates a message starting with the given operation or status
+		 * code.
+		 * 
+		 * @param code the operation code of a request or the status code
+		 * of a response.
+		 */
+		public Message(byte code) {
+			super(64);
+			this.count = 8;
+			this.buf[this.count++] = code;
+		}
+
+		/**
+		 * Writes an integer.
+		 * 
+		 * @param value the integer.
+		 * @return this message.
+		 */
+		public Message putInt(int value) {
+			try {
+				this.out.writeInt(value);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return this;
+		}
+
+		/**
+		 * Writes a long.
+		 * 
+		 * @param value the long.
+		 * @return this message.
+		 */
+		public Message putLong(long value) {
+			try {
+				this.out.writeLong(value);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return this;
+		}
+
+		/**
+		 * Writes a boolean.
+		 * 
+		 * @param value the boolean.
+		 * @return this message.
+		 */
+		public Message putBoolean(boolean value) {
+			write(value ? 1 : 0);
+			return this;
+		}
+
+		/**
+		 * Writes a string.
+		 * 
+		 * @param value the string, or <tt>null</tt>.
+		 * @return this message.
+		 */
+		public Message putString(String value) {
+			if (value == null) {
+				return putInt(-1);
+			}
+			byte[] bytes = value.getBytes(UTF8);
+			putInt(bytes.length);
+			write(bytes, 0, bytes.length);
+			return this;
+		}
+
+		/**
+		 * Writes an array of strings.
+		 * 
+		 * @param values the array, or <tt>null</tt>.
+		 * @return this message.
+		 */
+		public Message putStrings(String[] values) {
+			if (values == null) {
+				return putInt(-1);
+			}
+			putInt(values.length);
+			for (String value : values) {
+				putString(value);
+			}
+			return this;
+		}
+
+		/**
+		 * Writes an array of arrays of strings.
+		 * 
+		 * @param values the array, or <tt>null</tt>.
+		 * @return this message.
+		 */
+		public Message putStringArrays(String[][] values) {
+			if (values == null) {
+				return putInt(-1);
+			}
+			putInt(values.length);
+			for (String[] value : values) {
+				putStrings(value);
+			}
+			return this;
+		}
+
+		/**
+		 * Writes an array of integers.
+		 * 
+		 * @param values the array, or <tt>null</tt>.
+		 * @return this message.
+		 */
+		public Message putInts(int[] values) {
+			if (values == null) {
+				return putInt(-1);
+			}
+			putInt(values.length);
+			for (int value : values) {
+				putInt(value);
+			}
+			return this;
+		}
+
+		/**
+		 * Writes the fields of some records by record number.
+		 * 
+		 * @param records the records, or <tt>null</tt>.
+		 * @return this message.
+		 */
+		public Message putRecords(SortedMap<Integer, String[]> records) {
+			if (records == null) {
+				return putInt(-1);
+			}
+			putInt(records.size());
+			for (Map.Entry<Integer, String[]> record
+					: records.entrySet()) {
+				putInt(record.getKey());
+				putStrings(record.getValue());
+			}
+			return this;
+		}
+
+		/**
+		 * Completes the message, writing its length and the id of the 
+		 * request at the start, and returns the frame ready to be sent.
+		 * 
+		 * @param id the id of the request.
+		 * @return a buffer with the frame, without copying the message.
+		 */
+		public ByteBuffer toFrame(int id) {
+			ByteBuffer frame = ByteBuffer.wrap(this.buf, 0, this.count);
+			frame.putInt(0, this.count - 4);
+			frame.putInt(4, id);
+			return frame;
+		}
+	}
+}
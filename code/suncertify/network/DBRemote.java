@@ -1,138 +1,345 @@
-/*
- * DBRemote.java		
- * 
- * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
- */
-
-package suncertify.network;
-
-
-import java.rmi.Remote;
-import java.rmi.RemoteException;
-
-import suncertify.db.DuplicateKeyException;
-import suncertify.db.RecordNotFoundException;
-
-
-/**
- * This interface acts as a remote interface for the remote {@code DB}
- * interface. All methods match the ones of {@code DB}, and to each one
- * a {@code RemoteException} was added to {@code throws} clause to comply
- * with RMI requirements.
- * 
- * @author Pedro Oliveira
- * @version 1.0
- * @see Remote
- * @see DB 
- */
-public interface DBRemote extends Remote { 
-	
-    /**
-     * Reads a record from the file. Returns an array where each
-     * element is a record value.
-     * 
-     * @param recNo the record number to retrieve from the database.
-     * @return a {@code String} array containing all of the elements 
-     * for the given <code>recNo</code> 
-     * @throws RecordNotFoundException if the specified record 
-     * number does not exist in the database.
-     * @throws RemoteException if an exception is thrown due to remote errors.
-     */
-	public String[] read(int recNo) throws RecordNotFoundException, 
-			RemoteException;
-	
-    /**
-     * Modifies the fields of a record. The new value for field n
-     * appears in data[n].
-     * 
-     * @param recNo the record number to update in the database.
-     * @param data a {@code String} array with the new data of the given
-     * record. 
-     * @param lockCookie cookie value trying to get access to the record. 
-     * @throws RecordNotFoundException if the specified record 
-     * number does not exist in the database. 
-     * @throws SecurityException if {@code lockCookie} is not the cookie value
-     * that holds the lock for the given record number.
-     * @throws RemoteException if an exception is thrown due to remote errors.
-     */
-	public void update(int recNo, String[] data, long lockCookie) 
-			throws RemoteException, RecordNotFoundException, SecurityException;
-	
-    /**
-     * Deletes a record, making the record number and associated disk
-     * storage available for reuse. 
-     * 
-     * @param recNo the record number to delete in the database.
-     * @param lockCookie cookie value trying to get access to the record. 
-     * @throws RecordNotFoundException if the specified record 
-     * number does not exist in the database. 
-     * @throws SecurityException if {@code lockCookie} is not the cookie value
-     * that holds the lock for the given record number.
-     * @throws RemoteException if an exception is thrown due to remote errors.
-     */
-    public void delete(int recNo, long lockCookie) throws RemoteException, 
-    		RecordNotFoundException, SecurityException;
-    
-    /**
-     * Returns an array of record numbers that match the specified
-     * criteria. Field n in the database file is described by
-     * criteria[n]. <p>
-     * 
-     * A null value in criteria[n] matches any field value. A non-null
-     * value in criteria[n] matches any field value that begins with 
-     * criteria[n]. (For example, "Fred" matches "Fred" or "Freddy".)
-     * 
-     * @param criteria a array of strings with the patterns that must be
-     * matched in the search performed.
-     * @return an array of integers with the record numbers that match the
-     * specified criteria.
-     * @throws RemoteException if an exception is thrown due to remote errors.
-     */
-    public int[] find(String[] criteria) throws RemoteException;
-    
-    /**
-     * Creates a new record in the database (reusing a
-     * deleted entry if one exists). Inserts the given data, and returns
-     * the record number of the new record.
-     * 
-     * @param data a {@code String} array with the data to set for the 
-     * new record. 
-     * @return the record number of the newly created record.
-     * @throws DuplicateKeyException if the data given violates the primary 
-     * key constraint of the database.
-     * @throws RemoteException if an exception is thrown due to remote errors.
-     */
-    public int create(String[] data) throws RemoteException, 
-    		DuplicateKeyException;
-    
-    /**
-     * Locks a record so that it can only be updated or deleted by this 
-     * client. Returned value is a cookie that must be used when the record
-     * is unlocked, updated, or deleted. If the specified record is already 
-     * locked by a different client, the current thread gives up the CPU and
-     * consumes no CPU cycles until the record is unlocked.
-     * 
-     * @param recNo the record number to lock in the database.
-     * @return the cookie value generated by the locking mechanism.
-     * @throws RecordNotFoundException if the specified record 
-     * number does not exist in the database. 
-     * @throws RemoteException if an exception is thrown due to remote errors.
-     */	
-    public long lock(int recNo) throws RemoteException, 
-    		RecordNotFoundException;
-    
-    /**
-     * Releases the lock on a record. Cookie must be the cookie
-     * returned when the record was locked; otherwise throws SecurityException.
-     * 
-     * @param recNo the record number to unlock in the database.
-     * @param lockCookie cookie value trying to get access to the record.
-     * @throws RecordNotFoundException if the specified record 
-     * number does not exist in the database. 
-     * @throws SecurityException if {@code lockCookie} is not the cookie value
-     * that holds the lock for the given record number.
-     * @throws RemoteException if an exception is thrown due to remote errors.
-     */
-    public void unlock(int recNo, long lockCookie) throws RemoteException,
-    		RecordNotFoundException;
-}
+/*
+ * DBRemote.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.network;
+
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+import java.util.SortedMap;
+
+import suncertify.db.DuplicateKeyException;
+import suncertify.db.RecordNotFoundException;
+import suncertify.db.ResultPage;
+import suncertify.db.VersionConflictException;
+import suncertify.db.VersionedRecord;
+
+
+/**
+ * This interface acts as a remote interface for the remote {@code DB}
+ * interface. All methods match the ones of {@code DB}, and to each one
+ * a {@code RemoteException} was added to {@code throws} clause to comply
+ * with RMI requirements.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.9
+ * @see Remote
+ * @see DB 
+ * @see ExtendedDB
+ */
+public interface DBRemote extends Remote { 
+	
+    /**
+     * Reads a record from the file. Returns an array where each
+     * element is a record value.
+     * 
+     * @param recNo the record number to retrieve from the database.
+     * @return a {@code String} array containing all of the elements 
+     * for the given <code>recNo</code> 
+     * @throws RecordNotFoundException if the specified record 
+     * number does not exist in the database.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+	public String[] read(int recNo) throws RecordNotFoundException, 
+			RemoteException;
+	
+    /**
+     * Modifies the fields of a record. The new value for field n
+     * appears in data[n].
+     * 
+     * @param recNo the record number to update in the database.
+     * @param data a {@code String} array with the new data of the given
+     * record. 
+     * @param lockCookie cookie value trying to get access to the record. 
+     * @throws RecordNotFoundException if the specified record 
+     * number does not exist in the database. 
+     * @throws SecurityException if {@code lockCookie} is not the cookie value
+     * that holds the lock for the given record number.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+	public void update(int recNo, String[] data, long lockCookie) 
+			throws RemoteException, RecordNotFoundException, SecurityException;
+	
+    /**
+     * Deletes a record, making the record number and associated disk
+     * storage available for reuse. 
+     * 
+     * @param recNo the record number to delete in the database.
+     * @param lockCookie cookie value trying to get access to the record. 
+     * @throws RecordNotFoundException if the specified record 
+     * number does not exist in the database. 
+     * @throws SecurityException if {@code lockCookie} is not the cookie value
+     * that holds the lock for the given record number.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public void delete(int recNo, long lockCookie) throws RemoteException, 
+    		RecordNotFoundException, SecurityException;
+    
+    /**
+     * Returns an array of record numbers that match the specified
+     * criteria. Field n in the database file is described by
+     * criteria[n]. <p>
+     * 
+     * A null value in criteria[n] matches any field value. A non-null
+     * value in criteria[n] matches any field value that begins with 
+     * criteria[n]. (For example, "Fred" matches "Fred" or "Freddy".)
+     * 
+     * @param criteria a array of strings with the patterns that must be
+     * matched in the search performed.
+     * @return an array of integers with the record numbers that match the
+     * specified criteria.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public int[] find(String[] criteria) throws RemoteException;
+
+    /**
+     * Reads the records with the given numbers in a single pass. Element n
+     * of the returned array has the fields of the record recNos[n], or is
+     * <tt>null</tt> if that record does not exist or is deleted.
+     * 
+     * @param recNos the record numbers to retrieve from the database.
+     * @return an array with a {@code String} array for each record number,
+     * in the same order.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public String[][] readMany(int[] recNos) throws RemoteException;
+
+    /**
+     * Returns the records that match the specified criteria, with their
+     * fields, in a single pass over the database. The criteria are 
+     * evaluated as in {@link #find(String[])}.
+     * 
+     * @param criteria a array of strings with the patterns that must be
+     * matched in the search performed.
+     * @return the fields of the matching records by record number.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public SortedMap<Integer, String[]> findRecords(String[] criteria) 
+    		throws RemoteException;
+
+    /**
+     * Returns a page of the records that match the specified criteria, with
+     * their fields, starting at the position of the given token. The next
+     * page is returned by a call with the token of the returned page.
+     * 
+     * @param criteria a array of strings with the patterns that must be
+     * matched in the search performed.
+     * @param token {@link ResultPage#FIRST} or the token of the previous 
+     * page.
+     * @param offset the number of matches to skip.
+     * @param limit the maximum number of records of the page.
+     * @return the page with the matching records and the token of the next
+     * page.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public ResultPage findPage(String[] criteria, long token, int offset,
+    		int limit) throws RemoteException;
+
+    /**
+     * Books the record with the given primary key for the customer, only if
+     * the record is still available, in a single operation.
+     * 
+     * @param key an array with the elements of the primary key of the 
+     * record; the other elements are ignored.
+     * @param customerId the customer who books the record.
+     * @return <tt>true</tt> if the record was booked, or <tt>false</tt> if 
+     * it was already booked.
+     * @throws RecordNotFoundException if there is no record with the given
+     * primary key.
+     * @throws DuplicateKeyException if there is more than one record with
+     * the given primary key.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public boolean bookIfAvailable(String[] key, String customerId) 
+    		throws RemoteException, RecordNotFoundException, 
+    		DuplicateKeyException;
+
+    /**
+     * Makes the record with the given primary key available again, only if
+     * it is still booked by the customer, in a single operation.
+     * 
+     * @param key an array with the elements of the primary key of the 
+     * record; the other elements are ignored.
+     * @param customerId the customer who booked the record.
+     * @return <tt>true</tt> if the record was returned, or <tt>false</tt> if
+     * it is not booked by the customer.
+     * @throws RecordNotFoundException if there is no record with the given
+     * primary key.
+     * @throws DuplicateKeyException if there is more than one record with
+     * the given primary key.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public boolean returnIfOwned(String[] key, String customerId) 
+    		throws RemoteException, RecordNotFoundException, 
+    		DuplicateKeyException;
+
+    /**
+     * Books all the given records for the customer, only if all of them are
+     * still available, in a single operation. The records are locked in 
+     * ascending order of their numbers, so two bookings never deadlock each
+     * other, and either all or none of them are booked. Only with the 
+     * write-ahead log (<tt>db.wal</tt>) are they updated with a single 
+     * write, so that it still holds after a system crash; without it a 
+     * crash, or a failed write, may leave only some of them booked.
+     * 
+     * @param recNos the record numbers to book.
+     * @param customerId the customer who books the records.
+     * @return <tt>true</tt> if the records were booked, or <tt>false</tt> if
+     * any of them was already booked, in which case none is booked.
+     * @throws RecordNotFoundException if any of the record numbers does not
+     * exist in the database.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public boolean bookRecords(int[] recNos, String customerId) 
+    		throws RemoteException, RecordNotFoundException;
+
+    /**
+     * Reads a record together with its version. The version changes every
+     * time the record is changed.
+     * 
+     * @param recNo the record number to retrieve from the database.
+     * @return the fields and the version of the record.
+     * @throws RecordNotFoundException if the specified record 
+     * number does not exist in the database.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public VersionedRecord readVersioned(int recNo) throws RemoteException,
+    		RecordNotFoundException;
+
+    /**
+     * Modifies the fields of a record without locking it, only if the
+     * record still has the given version and is not locked.
+     * 
+     * @param recNo the record number to update in the database.
+     * @param data a {@code String} array with the new data of the given
+     * record. 
+     * @param expectedVersion the version of the record when it was read.
+     * @return the new version of the record.
+     * @throws RecordNotFoundException if the specified record 
+     * number does not exist in the database. 
+     * @throws VersionConflictException if the record was changed after it
+     * was read or is locked.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public long updateIfVersion(int recNo, String[] data, 
+    		long expectedVersion) throws RemoteException, 
+    		RecordNotFoundException, VersionConflictException;
+    
+    /**
+     * Creates a new record in the database (reusing a
+     * deleted entry if one exists). Inserts the given data, and returns
+     * the record number of the new record.
+     * 
+     * @param data a {@code String} array with the data to set for the 
+     * new record. 
+     * @return the record number of the newly created record.
+     * @throws DuplicateKeyException if the data given violates the primary 
+     * key constraint of the database.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public int create(String[] data) throws RemoteException, 
+    		DuplicateKeyException;
+    
+    /**
+     * Locks a record so that it can only be updated or deleted by this 
+     * client. Returned value is a cookie that must be used when the record
+     * is unlocked, updated, or deleted. If the specified record is already 
+     * locked by a different client, the current thread gives up the CPU and
+     * consumes no CPU cycles until the record is unlocked.
+     * 
+     * @param recNo the record number to lock in the database.
+     * @return the cookie value generated by the locking mechanism.
+     * @throws RecordNotFoundException if the specified record 
+     * number does not exist in the database. 
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */	
+    public long lock(int recNo) throws RemoteException, 
+    		RecordNotFoundException;
+    
+    /**
+     * Releases the lock on a record. Cookie must be the cookie
+     * returned when the record was locked; otherwise throws SecurityException.
+     * 
+     * @param recNo the record number to unlock in the database.
+     * @param lockCookie cookie value trying to get access to the record.
+     * @throws RecordNotFoundException if the specified record 
+     * number does not exist in the database. 
+     * @throws SecurityException if {@code lockCookie} is not the cookie value
+     * that holds the lock for the given record number.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public void unlock(int recNo, long lockCookie) throws RemoteException,
+    		RecordNotFoundException;
+
+    /**
+     * Locks a record as {@link #lock(int)}, but waits at most the given
+     * time while the record is locked by another client.
+     * 
+     * @param recNo the record number to lock in the database.
+     * @param timeout the maximum time to wait, in milliseconds.
+     * @return the cookie value generated by the locking mechanism, or zero
+     * if the record was not locked within the timeout.
+     * @throws RecordNotFoundException if the specified record 
+     * number does not exist in the database. 
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public long tryLock(int recNo, long timeout) throws RemoteException,
+    		RecordNotFoundException;
+
+    /**
+     * Renews the lease of a lock, so it does not expire. A lock not used
+     * for longer than its lease, either to renew it or to update or delete
+     * its record, expires and is released.
+     * 
+     * @param recNo the record number of the lock.
+     * @param lockCookie the cookie of the lock.
+     * @throws RecordNotFoundException if the record is not locked, or if 
+     * the lock expired.
+     * @throws SecurityException if {@code lockCookie} is not the cookie value
+     * that holds the lock for the given record number.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public void renewLock(int recNo, long lockCookie) 
+    		throws RemoteException, RecordNotFoundException;
+
+    /**
+     * Locks a record in shared mode, so it cannot be updated or deleted
+     * while the client reads it. Any number of clients may hold a shared 
+     * lock of the same record, but not while another client holds or waits
+     * for the lock in exclusive mode, as given by {@link #lock(int)}. The
+     * returned cookie must be used when the record is unlocked, and cannot
+     * be used to update or delete the record before the lock is upgraded.
+     * 
+     * @param recNo the record number to lock in the database.
+     * @return the cookie value generated by the locking mechanism.
+     * @throws RecordNotFoundException if the specified record 
+     * number does not exist in the database. 
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public long lockShared(int recNo) throws RemoteException, 
+    		RecordNotFoundException;
+
+    /**
+     * Upgrades a shared lock to exclusive mode, keeping its cookie, so the
+     * record can then be updated or deleted. Waits until the other clients
+     * release their shared locks of the record. If another client is 
+     * already waiting to upgrade its lock of the same record, the lock is
+     * not upgraded, since each client would wait for the other forever; the
+     * client should then unlock the record.
+     * 
+     * @param recNo the record number of the lock.
+     * @param lockCookie the cookie of the shared lock.
+     * @return <tt>true</tt> if the lock is now exclusive, or <tt>false</tt>
+     * if it could not be upgraded.
+     * @throws RecordNotFoundException if the record is not locked.
+     * @throws SecurityException if {@code lockCookie} is not the cookie value
+     * of a lock of the given record number.
+     * @throws RemoteException if an exception is thrown due to remote errors.
+     */
+    public boolean upgradeLock(int recNo, long lockCookie) 
+    		throws RemoteException, RecordNotFoundException;
+}
@@ -0,0 +1,120 @@
+/*
+ * DataRegistry.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.network;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import suncertify.db.Data;
+import suncertify.db.InvalidSchemaException;
+import suncertify.db.UnknownDBException;
+
+
+/**
+ * The databases shared by the clients connected to the server. There is a
+ * single {@code Data} instance for each database file, so all the clients
+ * share its lock table, cache and indexes, and the file is opened and read
+ * only once. <p>
+ * 
+ * Each user of a database acquires it and releases it when done; the
+ * database is closed when the last of its users releases it.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.0
+ * @see Data
+ * @see DataRemote
+ */
+class DataRegistry {
+
+	/**
+	 * The open databases, by canonical path of the database file. It is
+	 * guarded by its own monitor.
+	 */
+	private static final Map<String, Entry> DATABASES =
+			new HashMap<String, Entry>();
+
+	/**
+	 * This class is a utility class so no constructor should ever be
+	 * invoked.
+	 */
+	private DataRegistry() { }
+
+	/**
+	 * Returns the database of the given file, opening it if no one is using
+	 * it, and counts one more user of it.
+	 * 
+	 * @param dbPath the path to the database file.
+	 * @return the database shared by all the users of the file.
+	 * @throws IOException if the database file cannot be opened.
+	 * @throws UnknownDBException if the database magic cookie is different
+	 * from the expected.
+	 * @throws InvalidSchemaException if the header information is not
+	 * consistent with the number of records in the database.
+	 */
+	public static Data acquire(String dbPath) throws IOException, 
+			UnknownDBException, InvalidSchemaException {
+		String path = new File(dbPath).getCanonicalPath();
+		synchronized (DATABASES) {
+			Entry entry = DATABASES.get(path);
+			if (entry == null) {
+				entry = new Entry(new Data(path));
+				DATABASES.put(path, entry);
+			}
+			entry.users++;
+			return entry.db;
+		}
+	}
+
+	/**
+	 * Counts one user less of the given database, and closes it if it was
+	 * the last one.
+	 * 
+	 * @param db a database returned by {@link #acquire(String)}.
+	 * @throws IOException if the database cannot be closed.
+	 */
+	public static void release(Data db) throws IOException {
+		synchronized (DATABASES) {
+			for (Map.Entry<String, Entry> open : DATABASES.entrySet()) {
+				Entry entry = open.getValue();
+				if (entry.db == db) {
+					if (--entry.users == 0) {
+						DATABASES.remove(open.getKey());
+						db.close();
+					}
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * An open database and the number of its users.
+	 */
+	private static class Entry {
+
+		/**
+		 * The database.
+		 */
+		private final Data db;
+
+		/**
+		 * The number of users which acquired and did not release the
+		 * database.
+		 */
+		private int users;
+
+		/**
+		 * Creates an entry for the given database, with no users.
+		 */
+		private Entry(Data db) {
+			this.db = db;
+		}
+	}
+}
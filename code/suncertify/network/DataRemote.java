@@ -1,101 +1,318 @@
-/*
- * DataRemote.java		
- * 
- * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
- */
-
-package suncertify.network;
-
-import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
-
-import suncertify.db.DB;
-import suncertify.db.Data;
-import suncertify.db.DuplicateKeyException;
-import suncertify.db.RecordNotFoundException;
-
-
-/**
- * This class represents the RMI implementation of the {@code DBRemote} 
- * interface. An object of this class contains a reference to the database. <p>
- * 
- * This class acts as an adapter or wrapper of the remote database.
- * 
- * @author Pedro Oliveira
- * @version 1.0
- * @see DBRemote
- * @see UnicastRemoteObject
- */
-public class DataRemote extends UnicastRemoteObject implements DBRemote {
-
-	/**
-	 * Default serial version UID. 
-	 */
-	private static final long serialVersionUID = 1L;
-
-	/**
-	 * The database reference variable.
-	 */
-	private DB db; 
-
-	/**
-	 * Creates an instance of this class using the database in the location
-	 * specified by {@code dbPath}.
-	 * 
-	 * @param dbPath the path in the remote machine to database physical file.
-	 * @throws RemoteException if an a remote access to database could not be
-	 * obtained.
-	 */
-	public DataRemote(String dbPath) throws RemoteException {
-		try {
-			this.db = new Data(dbPath);
-		} catch (Exception e) {
-			
-			// Wrapps all exceptions into a RemoteException
-			throw new RemoteException(e.getMessage());
-		}
-	}
-
-	@Override
-	public String[] read(int recNo) throws RemoteException, 
-			RecordNotFoundException {	
-		return this.db.read(recNo);
-	}
-
-	@Override
-	public void update(int recNo, String[] data, long lockCookie) 
-			throws RemoteException, RecordNotFoundException, 
-			SecurityException {
-		this.db.update(recNo, data, lockCookie);
-	}
-
-	@Override
-	public void delete(int recNo, long lockCookie) throws RemoteException,
-			RecordNotFoundException, SecurityException {
-		this.db.delete(recNo, lockCookie);
-	}
-
-	@Override
-	public int[] find(String[] criteria) throws RemoteException {
-		return this.db.find(criteria);
-	}
-
-	@Override
-	public int create(String[] data) throws RemoteException, 
-			DuplicateKeyException {
-		return this.db.create(data);
-	}
-	
-	@Override
-	public long lock(int recNo) throws RemoteException, 
-			RecordNotFoundException {
-		return this.db.lock(recNo);
-	}
-
-	@Override
-	public void unlock(int recNo, long cookie) 
-			throws RemoteException, RecordNotFoundException, 
-			SecurityException {
-		this.db.unlock(recNo, cookie);
-	}    
-}
+/*
+ * DataRemote.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.network;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import suncertify.db.Data;
+import suncertify.db.DuplicateKeyException;
+import suncertify.db.RecordNotFoundException;
+import suncertify.db.ResultPage;
+import suncertify.db.VersionConflictException;
+import suncertify.db.VersionedRecord;
+
+
+/**
+ * This class represents the RMI implementation of the {@code DBRemote} 
+ * interface. An object of this class is the session of a single client, 
+ * and contains a reference to the database shared by all the clients of
+ * the same database file. <p>
+ * 
+ * This class acts as an adapter or wrapper of the remote database. <p>
+ * 
+ * The locks taken through an object of this class are owned by it, 
+ * whichever RMI thread runs the call, and are kept and released when the 
+ * client no longer references it, so a client that dies never leaves 
+ * records locked. The object is then unexported and releases the
+ * shared database.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.12
+ * @see DBRemote
+ * @see UnicastRemoteObject
+ * @see Unreferenced
+ */
+public class DataRemote extends UnicastRemoteObject implements DBRemote,
+		Unreferenced {
+
+	/**
+	 * Default serial version UID. 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The logger of the failures which cannot be reported to the client.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(
+			DataRemote.class.getName());
+
+	/**
+	 * The database reference variable, shared with the other clients.
+	 */
+	private Data db; 
+
+	/**
+	 * True once the client no longer references this object. It is guarded
+	 * by the monitor of {@code heldLocks}.
+	 */
+	private boolean isClosed;
+
+	/**
+	 * The cookies of the locks held by the client, by record number. It is
+	 * guarded by its own monitor.
+	 */
+	private Map<Integer, Long> heldLocks = new HashMap<Integer, Long>();
+
+	/**
+	 * Creates an instance of this class using the database in the location
+	 * specified by {@code dbPath}. The database is opened only if no other
+	 * client is using it.
+	 * 
+	 * @param dbPath the path in the remote machine to database physical file.
+	 * @throws RemoteException if an a remote access to database could not be
+	 * obtained.
+	 */
+	public DataRemote(String dbPath) throws RemoteException {
+		try {
+			this.db = DataRegistry.acquire(dbPath);
+		} catch (Exception e) {
+			UnicastRemoteObject.unexportObject(this, true);
+			
+			// Wrapps all exceptions into a RemoteException
+			throw new RemoteException(e.getMessage());
+		}
+	}
+
+	@Override
+	public String[] read(int recNo) throws RemoteException, 
+			RecordNotFoundException {	
+		return this.db.read(recNo);
+	}
+
+	@Override
+	public void update(int recNo, String[] data, long lockCookie) 
+			throws RemoteException, RecordNotFoundException, 
+			SecurityException {
+		this.db.update(recNo, data, lockCookie);
+	}
+
+	@Override
+	public void delete(int recNo, long lockCookie) throws RemoteException,
+			RecordNotFoundException, SecurityException {
+		this.db.delete(recNo, lockCookie);
+	}
+
+	@Override
+	public int[] find(String[] criteria) throws RemoteException {
+		return this.db.find(criteria);
+	}
+
+	@Override
+	public String[][] readMany(int[] recNos) throws RemoteException {
+		return this.db.readMany(recNos);
+	}
+
+	@Override
+	public SortedMap<Integer, String[]> findRecords(String[] criteria) 
+			throws RemoteException {
+		return this.db.findRecords(criteria);
+	}
+
+	@Override
+	public ResultPage findPage(String[] criteria, long token, int offset,
+			int limit) throws RemoteException {
+		return this.db.findPage(criteria, token, offset, limit);
+	}
+
+	@Override
+	public boolean bookIfAvailable(String[] key, String customerId)
+			throws RemoteException, RecordNotFoundException, 
+			DuplicateKeyException {
+		return this.db.bookIfAvailable(key, customerId);
+	}
+
+	@Override
+	public boolean returnIfOwned(String[] key, String customerId)
+			throws RemoteException, RecordNotFoundException, 
+			DuplicateKeyException {
+		return this.db.returnIfOwned(key, customerId);
+	}
+
+	@Override
+	public boolean bookRecords(int[] recNos, String customerId)
+			throws RemoteException, RecordNotFoundException {
+		return this.db.bookRecords(recNos, customerId);
+	}
+
+	@Override
+	public VersionedRecord readVersioned(int recNo) throws RemoteException,
+			RecordNotFoundException {
+		return this.db.readVersioned(recNo);
+	}
+
+	@Override
+	public long updateIfVersion(int recNo, String[] data, 
+			long expectedVersion) throws RemoteException, 
+			RecordNotFoundException, VersionConflictException {
+		return this.db.updateIfVersion(recNo, data, expectedVersion);
+	}
+
+	@Override
+	public int create(String[] data) throws RemoteException, 
+			DuplicateKeyException {
+		return this.db.create(data);
+	}
+	
+	@Override
+	public long lock(int recNo) throws RemoteException, 
+			RecordNotFoundException {
+		long cookie;
+		this.db.setLockOwner(this);
+		try {
+			cookie = this.db.lock(recNo);
+		} finally {
+			this.db.setLockOwner(null);
+		}
+		held(recNo, cookie);
+		return cookie;
+	}
+
+	@Override
+	public void unlock(int recNo, long cookie) 
+			throws RemoteException, RecordNotFoundException, 
+			SecurityException {
+		this.db.unlock(recNo, cookie);
+		synchronized (this.heldLocks) {
+			this.heldLocks.remove(recNo);
+		}
+	}    
+
+	@Override
+	public long tryLock(int recNo, long timeout) throws RemoteException,
+			RecordNotFoundException {
+		long cookie;
+		this.db.setLockOwner(this);
+		try {
+			cookie = this.db.tryLock(recNo, timeout);
+		} finally {
+			this.db.setLockOwner(null);
+		}
+		if (cookie != 0) {
+			held(recNo, cookie);
+		}
+		return cookie;
+	}
+
+	@Override
+	public void renewLock(int recNo, long lockCookie) 
+			throws RemoteException, RecordNotFoundException {
+		this.db.renewLock(recNo, lockCookie);
+	}
+
+	@Override
+	public long lockShared(int recNo) throws RemoteException, 
+			RecordNotFoundException {
+		long cookie;
+		this.db.setLockOwner(this);
+		try {
+			cookie = this.db.lockShared(recNo);
+		} finally {
+			this.db.setLockOwner(null);
+		}
+		held(recNo, cookie);
+		return cookie;
+	}
+
+	@Override
+	public boolean upgradeLock(int recNo, long lockCookie) 
+			throws RemoteException, RecordNotFoundException {
+		this.db.setLockOwner(this);
+		try {
+			return this.db.upgradeLock(recNo, lockCookie);
+		} finally {
+			this.db.setLockOwner(null);
+		}
+	}
+
+	/**
+	 * Releases the locks still held by the client, unexports this object and
+	 * releases the shared database, once the client no longer references
+	 * this object.
+	 */
+	@Override
+	public void unreferenced() {
+		List<Map.Entry<Integer, Long>> locks;
+		synchronized (this.heldLocks) {
+			if (this.isClosed) {
+				return;
+			}
+			this.isClosed = true;
+			locks = new ArrayList<Map.Entry<Integer, Long>>(
+					this.heldLocks.entrySet());
+			this.heldLocks.clear();
+		}
+		for (Map.Entry<Integer, Long> lock : locks) {
+			try {
+				this.db.unlock(lock.getKey(), lock.getValue());
+			} catch (RecordNotFoundException e) {
+				
+				// The lock already expired.
+			} catch (SecurityException e) {
+				
+				// The lock expired and was handed over to another client.
+			}
+		}
+		try {
+			UnicastRemoteObject.unexportObject(this, true);
+		} catch (NoSuchObjectException e) {
+			
+			// The object was already unexported.
+		}
+		try {
+			DataRegistry.release(this.db);
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Database not closed.", e);
+		}
+	}
+
+	/**
+	 * Keeps the cookie of a lock taken by the client. A lock taken while
+	 * the client was being closed is released at once, since the locks of
+	 * the client were already released, and the call fails.
+	 */
+	private void held(int recNo, long cookie) throws RemoteException {
+		synchronized (this.heldLocks) {
+			if (!this.isClosed) {
+				this.heldLocks.put(recNo, cookie);
+				return;
+			}
+		}
+		try {
+			this.db.unlock(recNo, cookie);
+		} catch (RecordNotFoundException e) {
+			
+			// The lock already expired.
+		} catch (SecurityException e) {
+			
+			// The lock expired and was handed over to another client.
+		}
+		throw new RemoteException("The client session is closed.");
+	}
+}
@@ -0,0 +1,570 @@
+/*
+ * NioAdapter.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.network;
+
+import java.io.IOException;
+
+import java.net.InetSocketAddress;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import suncertify.db.DB;
+import suncertify.db.DeadlockException;
+import suncertify.db.DuplicateKeyException;
+import suncertify.db.ExtendedDB;
+import suncertify.db.RecordNotFoundException;
+import suncertify.db.ResultPage;
+import suncertify.db.StorageException;
+import suncertify.db.VersionConflictException;
+import suncertify.db.VersionedRecord;
+
+
+/**
+ * The client of a {@code NioServer}, which implements the {@code DB} and
+ * {@code ExtendedDB} interfaces by sending each call to the server in the
+ * {@code BinaryProtocol}, over a single connection. <p>
+ * 
+ * The calls of several threads are sent at once, each with its own request
+ * id, and a thread of the adapter reads the responses and hands each one
+ * to the thread waiting for it. So a thread waiting for a lock never holds
+ * up the calls of the others, as the unlock it may be waiting for. <p>
+ * 
+ * As in {@code RemoteAdapter}, a call which fails due to network errors
+ * throws a {@code RecordNotFoundException}, or returns an empty result if
+ * the method throws no exceptions, and the next call connects again. The
+ * locks taken before are lost then, since the server releases the locks of
+ * a client which disconnects. A call which fails to read or write the
+ * database file in the server throws a {@code StorageException}, and a 
+ * call which fails there for any other reason, as a result too large for
+ * a frame, throws an {@code IllegalStateException}.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.2
+ * @see DB
+ * @see ExtendedDB
+ * @see NioServer
+ */
+public class NioAdapter implements ExtendedDB {
+
+	/**
+	 * The address of the server.
+	 */
+	private final InetSocketAddress address;
+
+	/**
+	 * The connection to the server, or {@code null} once the adapter is
+	 * closed. It is guarded by the monitor of this object.
+	 */
+	private Connection connection;
+
+	/**
+	 * Creates an adapter connected to the server in the given host and
+	 * port.
+	 * 
+	 * @param host the <tt>ip</tt> address or hostname of the server.
+	 * @param port the port number where the server listens.
+	 * @throws IOException if the connection to the server is not possible.
+	 */
+	public NioAdapter(String host, int port) throws IOException {
+		this.address = new InetSocketAddress(host, port);
+		this.connection = new Connection(this.address);
+	}
+
+	/**
+	 * Closes the connection to the server. The locks still held by this
+	 * client are released by the server.
+	 * 
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void close() throws IOException {
+		Connection closed;
+		synchronized (this) {
+			closed = this.connection;
+			this.connection = null;
+		}
+		if (closed != null) {
+			closed.close();
+		}
+	}
+
+	@Override
+	public String[] read(int recNo) throws RecordNotFoundException {
+		ByteBuffer in = call(request(BinaryProtocol.READ).putInt(recNo));
+		return BinaryProtocol.getStrings(in);
+	}
+
+	@Override
+	public void update(int recNo, String[] data, long lockCookie)
+			throws RecordNotFoundException, SecurityException {
+		call(request(BinaryProtocol.UPDATE).putInt(recNo).putStrings(data)
+				.putLong(lockCookie));
+	}
+
+	@Override
+	public void delete(int recNo, long lockCookie)
+			throws RecordNotFoundException, SecurityException {
+		call(request(BinaryProtocol.DELETE).putInt(recNo).putLong(
+				lockCookie));
+	}
+
+	@Override
+	public int[] find(String[] criteria) {
+		try {
+			return BinaryProtocol.getInts(call(request(BinaryProtocol.FIND)
+					.putStrings(criteria)));
+		} catch (RecordNotFoundException e) {
+			return new int[]{};
+		}
+	}
+
+	@Override
+	public String[][] readMany(int[] recNos) {
+		try {
+			return BinaryProtocol.getStringArrays(call(request(
+					BinaryProtocol.READ_MANY).putInts(recNos)));
+		} catch (RecordNotFoundException e) {
+			return new String[recNos.length][];
+		}
+	}
+
+	@Override
+	public SortedMap<Integer, String[]> findRecords(String[] criteria) {
+		try {
+			return BinaryProtocol.getRecords(call(request(
+					BinaryProtocol.FIND_RECORDS).putStrings(criteria)));
+		} catch (RecordNotFoundException e) {
+			return new TreeMap<Integer, String[]>();
+		}
+	}
+
+	@Override
+	public ResultPage findPage(String[] criteria, long token, int offset,
+			int limit) {
+		ByteBuffer in;
+		try {
+			in = call(request(BinaryProtocol.FIND_PAGE).putStrings(criteria)
+					.putLong(token).putInt(offset).putInt(limit));
+		} catch (RecordNotFoundException e) {
+			return new ResultPage(new TreeMap<Integer, String[]>(),
+					ResultPage.END);
+		}
+		SortedMap<Integer, String[]> records = BinaryProtocol.getRecords(in);
+		return new ResultPage(records, in.getLong());
+	}
+
+	@Override
+	public boolean bookIfAvailable(String[] key, String customerId)
+			throws RecordNotFoundException, DuplicateKeyException {
+		return BinaryProtocol.getBoolean(callForKey(request(
+				BinaryProtocol.BOOK_IF_AVAILABLE).putStrings(key).putString(
+				customerId)));
+	}
+
+	@Override
+	public boolean returnIfOwned(String[] key, String customerId)
+			throws RecordNotFoundException, DuplicateKeyException {
+		return BinaryProtocol.getBoolean(callForKey(request(
+				BinaryProtocol.RETURN_IF_OWNED).putStrings(key).putString(
+				customerId)));
+	}
+
+	@Override
+	public boolean bookRecords(int[] recNos, String customerId)
+			throws RecordNotFoundException {
+		return BinaryProtocol.getBoolean(call(request(
+				BinaryProtocol.BOOK_RECORDS).putInts(recNos).putString(
+				customerId)));
+	}
+
+	@Override
+	public VersionedRecord readVersioned(int recNo)
+			throws RecordNotFoundException {
+		ByteBuffer in = call(request(BinaryProtocol.READ_VERSIONED).putInt(
+				recNo));
+		String[] data = BinaryProtocol.getStrings(in);
+		return new VersionedRecord(data, in.getLong());
+	}
+
+	@Override
+	public long updateIfVersion(int recNo, String[] data,
+			long expectedVersion) throws RecordNotFoundException,
+			VersionConflictException {
+		BinaryProtocol.Message request = request(
+				BinaryProtocol.UPDATE_IF_VERSION).putInt(recNo).putStrings(
+				data).putLong(expectedVersion);
+		ByteBuffer in;
+		try {
+			in = send(request);
+		} catch (IOException e) {
+			throw new RecordNotFoundException();
+		}
+		if (in.get(0) == BinaryProtocol.VERSION_CONFLICT) {
+			in.get();
+			throw new VersionConflictException(BinaryProtocol.getString(in));
+		}
+		return checked(in).getLong();
+	}
+
+	@Override
+	public int create(String[] data) throws DuplicateKeyException {
+		try {
+			return callForKey(request(BinaryProtocol.CREATE).putStrings(
+					data)).getInt();
+		} catch (RecordNotFoundException e) {
+			throw new DuplicateKeyException();
+		}
+	}
+
+	@Override
+	public long lock(int recNo) throws RecordNotFoundException {
+		return call(request(BinaryProtocol.LOCK).putInt(recNo)).getLong();
+	}
+
+	@Override
+	public long tryLock(int recNo, long timeout)
+			throws RecordNotFoundException {
+		return call(request(BinaryProtocol.TRY_LOCK).putInt(recNo).putLong(
+				timeout)).getLong();
+	}
+
+	@Override
+	public void renewLock(int recNo, long lockCookie)
+			throws RecordNotFoundException, SecurityException {
+		call(request(BinaryProtocol.RENEW_LOCK).putInt(recNo).putLong(
+				lockCookie));
+	}
+
+	@Override
+	public long lockShared(int recNo) throws RecordNotFoundException {
+		return call(request(BinaryProtocol.LOCK_SHARED).putInt(recNo))
+				.getLong();
+	}
+
+	@Override
+	public boolean upgradeLock(int recNo, long lockCookie)
+			throws RecordNotFoundException, SecurityException {
+		return BinaryProtocol.getBoolean(call(request(
+				BinaryProtocol.UPGRADE_LOCK).putInt(recNo).putLong(
+				lockCookie)));
+	}
+
+	@Override
+	public void unlock(int recNo, long cookie) throws RecordNotFoundException,
+			SecurityException {
+		call(request(BinaryProtocol.UNLOCK).putInt(recNo).putLong(cookie));
+	}
+
+	/**
+	 * Creates a request for the operation with the given code.
+	 */
+	private static BinaryProtocol.Message request(byte operation) {
+		return new BinaryProtocol.Message(operation);
+	}
+
+	/**
+	 * Sends the request to the server and returns the result of the
+	 * operation, positioned after the status.
+	 */
+	private ByteBuffer call(BinaryProtocol.Message request)
+			throws RecordNotFoundException {
+		try {
+			return checked(send(request));
+		} catch (IOException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	/**
+	 * Sends the request of an operation which may throw a
+	 * {@code DuplicateKeyException} to the server, and returns its result.
+	 */
+	private ByteBuffer callForKey(BinaryProtocol.Message request)
+			throws RecordNotFoundException, DuplicateKeyException {
+		ByteBuffer in;
+		try {
+			in = send(request);
+		} catch (IOException e) {
+			throw new RecordNotFoundException();
+		}
+		if (in.get(0) == BinaryProtocol.DUPLICATE_KEY) {
+			in.get();
+			throw new DuplicateKeyException(BinaryProtocol.getString(in));
+		}
+		return checked(in);
+	}
+
+	/**
+	 * Sends the request to the server and waits for its response, 
+	 * connecting again if the connection failed.
+	 */
+	private ByteBuffer send(BinaryProtocol.Message request)
+			throws IOException {
+		Connection current;
+		synchronized (this) {
+			if (this.connection == null) {
+				throw new IOException("The adapter is closed.");
+			} else if (this.connection.isBroken()) {
+				this.connection = new Connection(this.address);
+			}
+			current = this.connection;
+		}
+		return current.call(request);
+	}
+
+	/**
+	 * Returns the result of a response, positioned after the status, or
+	 * throws the exception of its status. A response with the status of a
+	 * checked exception not thrown by the operation means the operation
+	 * was not executed.
+	 */
+	private static ByteBuffer checked(ByteBuffer response)
+			throws RecordNotFoundException {
+		byte status = response.get();
+		if (status == BinaryProtocol.OK) {
+			return response;
+		}
+		String msg = BinaryProtocol.getString(response);
+		switch (status) {
+		case BinaryProtocol.SECURITY :
+			throw new SecurityException(msg);
+		case BinaryProtocol.DEADLOCK :
+			throw new DeadlockException(msg);
+		case BinaryProtocol.ILLEGAL_ARGUMENT :
+			throw new IllegalArgumentException(msg);
+		case BinaryProtocol.STORAGE :
+			throw new StorageException(msg);
+		case BinaryProtocol.FAILURE :
+			throw new IllegalStateException(msg);
+		default :
+			throw new RecordNotFoundException(msg);
+		}
+	}
+
+	/**
+	 * A connection to the server, whose responses are read by a thread of
+	 * its own. Once a call fails on it, the connection is closed and all
+	 * the calls waiting for a response fail, since the frames that follow
+	 * could no longer be told apart.
+	 */
+	private static class Connection implements Runnable {
+
+		/**
+		 * The channel of the connection.
+		 */
+		private final SocketChannel channel;
+
+		/**
+		 * The calls waiting for a response, by request id. It is guarded
+		 * by its own monitor, as is the id of the last request.
+		 */
+		private final Map<Integer, Call> calls = new HashMap<Integer, Call>();
+
+		/**
+		 * The id of the last request.
+		 */
+		private int lastId;
+
+		/**
+		 * The failure which broke the connection, or {@code null} while it
+		 * works.
+		 */
+		private volatile IOException failure;
+
+		/**
+		 * Opens a connection to the server in the given address, and starts
+		 * reading its responses.
+		 */
+		private Connection(InetSocketAddress address) throws IOException {
+			this.channel = SocketChannel.open(address);
+			this.channel.socket().setTcpNoDelay(true);
+			Thread reader = new Thread(this, "nio-client-" + address);
+			reader.setDaemon(true);
+			reader.start();
+		}
+
+		/**
+		 * Returns true once the connection failed.
+		 */
+		private boolean isBroken() {
+			return this.failure != null;
+		}
+
+		/**
+		 * Writes the request frame and waits for its response, returned
+		 * positioned at its status.
+		 */
+		private ByteBuffer call(BinaryProtocol.Message request)
+				throws IOException {
+			Call call = new Call();
+			int id;
+			synchronized (this.calls) {
+				if (this.failure != null) {
+					throw new IOException(this.failure.getMessage());
+				}
+				id = ++this.lastId;
+				this.calls.put(id, call);
+			}
+			ByteBuffer frame = request.toFrame(id);
+			if (frame.remaining() - 4 > BinaryProtocol.MAX_FRAME) {
+				synchronized (this.calls) {
+					this.calls.remove(id);
+				}
+				throw new IllegalArgumentException("The request is larger "
+						+ "than the maximum frame.");
+			}
+			try {
+				synchronized (this.channel) {
+					while (frame.hasRemaining()) {
+						this.channel.write(frame);
+					}
+				}
+			} catch (IOException e) {
+				fail(e);
+			}
+			return call.await();
+		}
+
+		/**
+		 * Reads the responses and hands each one to its call, until the
+		 * connection fails or is closed.
+		 */
+		@Override
+		public void run() {
+			ByteBuffer header = ByteBuffer.allocate(4);
+			try {
+				while (true) {
+					header.clear();
+					readFully(header);
+					int length = header.getInt(0);
+					if (length <= 4 || length > BinaryProtocol.MAX_FRAME) {
+						throw new IOException("Invalid frame length: " 
+								+ length);
+					}
+					ByteBuffer response = ByteBuffer.allocate(length);
+					readFully(response);
+					response.flip();
+					int id = response.getInt();
+					Call call;
+					synchronized (this.calls) {
+						call = this.calls.remove(id);
+					}
+					if (call != null) {
+						call.done(response.slice(), null);
+					}
+				}
+			} catch (IOException e) {
+				fail(e);
+			}
+		}
+
+		/**
+		 * Reads from the connection until the buffer is full.
+		 */
+		private void readFully(ByteBuffer buffer) throws IOException {
+			while (buffer.hasRemaining()) {
+				if (this.channel.read(buffer) < 0) {
+					throw new IOException("Connection closed by the server.");
+				}
+			}
+		}
+
+		/**
+		 * Closes the connection, failing the calls waiting for a response.
+		 */
+		private void close() {
+			fail(new IOException("Connection closed."));
+		}
+
+		/**
+		 * Breaks the connection with the given failure, closing it and
+		 * failing the calls waiting for a response.
+		 */
+		private void fail(IOException e) {
+			List<Call> failed;
+			synchronized (this.calls) {
+				if (this.failure == null) {
+					this.failure = e;
+				}
+				failed = new ArrayList<Call>(this.calls.values());
+				this.calls.clear();
+			}
+			try {
+				this.channel.close();
+			} catch (IOException closeFailure) {
+
+				// The connection is gone anyway.
+			}
+			for (Call call : failed) {
+				call.done(null, e);
+			}
+		}
+	}
+
+	/**
+	 * A call waiting for its response. It is guarded by its own monitor.
+	 */
+	private static class Call {
+
+		/**
+		 * The response, positioned at its status.
+		 */
+		private ByteBuffer response;
+
+		/**
+		 * The failure of the connection before the response was read.
+		 */
+		private IOException failure;
+
+		/**
+		 * True once the response was read or the connection failed.
+		 */
+		private boolean isDone;
+
+		/**
+		 * Ends the call with the given response or failure, waking up its
+		 * thread.
+		 */
+		private synchronized void done(ByteBuffer callResponse,
+				IOException callFailure) {
+			this.response = callResponse;
+			this.failure = callFailure;
+			this.isDone = true;
+			notifyAll();
+		}
+
+		/**
+		 * Waits until the call ends and returns its response. A thread
+		 * interrupted while waiting keeps waiting, with its interrupt 
+		 * status set, since the request was already sent.
+		 */
+		private synchronized ByteBuffer await() throws IOException {
+			boolean isInterrupted = false;
+			while (!this.isDone) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					isInterrupted = true;
+				}
+			}
+			if (isInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (this.failure != null) {
+				throw new IOException(this.failure.getMessage());
+			}
+			return this.response;
+		}
+	}
+}
@@ -0,0 +1,507 @@
+/*
+ * NioServer.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.network;
+
+import java.io.IOException;
+
+import java.net.InetSocketAddress;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import suncertify.db.Data;
+import suncertify.utils.PropertyHelper;
+import suncertify.utils.Utilities;
+
+
+/**
+ * A server which accepts network connections of {@code NioAdapter} clients
+ * and serves their requests in the {@code BinaryProtocol}, as an
+ * alternative to RMI. <p>
+ * 
+ * A single thread accepts the connections and reads the requests of all
+ * the clients through a selector, so an idle client holds no thread. Each
+ * complete request is executed by a worker thread, which may block while
+ * it waits for a record lock, and its response is written back by the
+ * selector thread. The connection is still read while its requests are
+ * executed, so a client may send other requests, as an unlock while
+ * another of its threads waits for a lock, and a client which disconnects
+ * is noticed at once and its locks are released. A client may have at
+ * most {@link #MAX_PENDING} requests being executed, after which its
+ * connection is no longer read until one of them finishes. <p>
+ * 
+ * The worker threads are configured by the <tt>network.nio.workers</tt>
+ * property: a positive number gives a pool with that many threads, and
+ * zero a thread for each request being executed, reusing the idle ones.
+ * Since the lock operations block their thread, the pool should not be
+ * smaller than the number of clients expected to wait for locks at once.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.2
+ * @see NioSession
+ * @see BinaryProtocol
+ * @see NioAdapter
+ */
+public class NioServer {
+
+	/**
+	 * The logger of the failures which cannot be reported to a client.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(
+			NioServer.class.getName());
+
+	/**
+	 * The maximum number of requests of a client being executed at once.
+	 */
+	public static final int MAX_PENDING = 64;
+
+	/**
+	 * The number of worker threads, or zero for a thread for each request
+	 * being executed.
+	 */
+	private static final int WORKERS;
+
+	/**
+	 * This initializer block loads property values from the application
+	 * properties file.
+	 */
+	static {
+		Properties prop;
+		try {
+			prop = Utilities.loadProperties("suncertify.properties");
+		} catch (IOException e) {
+			prop = System.getProperties();
+		}
+		PropertyHelper propHelper = new PropertyHelper(prop);
+		WORKERS = propHelper.getPropertyAsInteger("network.nio.workers", 0);
+	}
+
+	/**
+	 * The database shared by all the clients.
+	 */
+	private Data db;
+
+	/**
+	 * The channel which accepts the connections.
+	 */
+	private ServerSocketChannel serverChannel;
+
+	/**
+	 * The selector of the server channel and of the client connections.
+	 */
+	private Selector selector;
+
+	/**
+	 * The threads which execute the requests.
+	 */
+	private ExecutorService workers;
+
+	/**
+	 * The connections with a response to write after a request was 
+	 * executed. Only the selector thread changes the operations of 
+	 * interest of the connections.
+	 */
+	private Queue<Connection> executed = new ConcurrentLinkedQueue<Connection>();
+
+	/**
+	 * Starts a server of the database in the location specified by
+	 * {@code dbPath}, listening on the given port. The database is opened
+	 * only if no other server is using it.
+	 * 
+	 * @param dbPath the path to the database file.
+	 * @param port the port the server listens on.
+	 * @throws IOException if the database cannot be opened or the port
+	 * cannot be listened on.
+	 */
+	public NioServer(String dbPath, int port) throws IOException {
+		try {
+			this.db = DataRegistry.acquire(dbPath);
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+
+			// Wrapps the database exceptions into an IOException
+			throw new IOException(e.getMessage());
+		}
+		try {
+			this.selector = Selector.open();
+			this.serverChannel = ServerSocketChannel.open();
+			this.serverChannel.socket().setReuseAddress(true);
+			this.serverChannel.socket().bind(new InetSocketAddress(port));
+			this.serverChannel.configureBlocking(false);
+			this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+		this.workers = createWorkers();
+		Thread acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				select();
+			}
+		}, "nio-acceptor-" + port);
+		acceptor.start();
+	}
+
+	/**
+	 * Stops the server, closing the connections of all the clients and
+	 * releasing the database.
+	 * 
+	 * @throws IOException if the database cannot be closed.
+	 */
+	public void close() throws IOException {
+		if (this.workers != null) {
+			this.workers.shutdown();
+		}
+		if (this.selector != null) {
+			for (SelectionKey key : this.selector.keys()) {
+				if (key.attachment() != null) {
+					((Connection) key.attachment()).close();
+				}
+			}
+			this.selector.close();
+		}
+		if (this.serverChannel != null) {
+			this.serverChannel.close();
+		}
+		if (this.db != null) {
+			DataRegistry.release(this.db);
+			this.db = null;
+		}
+	}
+
+	/**
+	 * Creates the worker threads configured in the application properties.
+	 */
+	private static ExecutorService createWorkers() {
+		ThreadFactory factory = new ThreadFactory() {
+			private AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "nio-worker-"
+						+ this.count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		if (WORKERS > 0) {
+			return Executors.newFixedThreadPool(WORKERS, factory);
+		}
+		return Executors.newCachedThreadPool(factory);
+	}
+
+	/**
+	 * Accepts the connections, reads the requests and writes the responses
+	 * until the server is closed.
+	 */
+	private void select() {
+		while (this.selector.isOpen()) {
+			try {
+				this.selector.select();
+				if (!this.selector.isOpen()) {
+					return;
+				}
+				Connection executedConnection;
+				while ((executedConnection = this.executed.poll()) != null) {
+					executedConnection.resume();
+				}
+				Iterator<SelectionKey> keys =
+						this.selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+					} else {
+						Connection connection = (Connection) key.attachment();
+						try {
+							if (key.isReadable()) {
+								connection.read();
+							}
+							if (key.isValid() && key.isWritable()) {
+								connection.write();
+							}
+						} catch (IOException e) {
+							connection.close();
+						} catch (CancelledKeyException e) {
+							connection.close();
+						}
+					}
+				}
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Connections not served.", e);
+			} catch (ClosedSelectorException e) {
+
+				// The server was closed while selecting.
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Accepts the pending connection, if any, and starts reading its
+	 * requests.
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel = this.serverChannel.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		Connection connection = new Connection(channel);
+		connection.key = channel.register(this.selector, SelectionKey.OP_READ,
+				connection);
+	}
+
+	/**
+	 * The connection of a client, with the request being read and the
+	 * responses being written.
+	 */
+	private class Connection {
+
+		/**
+		 * The channel of the connection.
+		 */
+		private final SocketChannel channel;
+
+		/**
+		 * The key of the channel in the selector.
+		 */
+		private SelectionKey key;
+
+		/**
+		 * The session of the client.
+		 */
+		private final NioSession session = new NioSession(NioServer.this.db);
+
+		/**
+		 * The length of the request being read.
+		 */
+		private final ByteBuffer header = ByteBuffer.allocate(4);
+
+		/**
+		 * The body of the request being read, or {@code null} while its
+		 * length is read.
+		 */
+		private ByteBuffer request;
+
+		/**
+		 * The number of requests being executed.
+		 */
+		private final AtomicInteger pending = new AtomicInteger();
+
+		/**
+		 * The responses of the executed requests, in the order they 
+		 * finished.
+		 */
+		private final Queue<ByteBuffer> responses =
+				new ConcurrentLinkedQueue<ByteBuffer>();
+
+		/**
+		 * The response being written, or {@code null} if none is.
+		 */
+		private ByteBuffer response;
+
+		/**
+		 * Creates a connection over the given channel.
+		 */
+		private Connection(SocketChannel channel) {
+			this.channel = channel;
+		}
+
+		/**
+		 * Reads the available bytes of the requests and executes each one,
+		 * once it is complete, in a worker thread.
+		 */
+		private void read() throws IOException {
+			while (this.pending.get() < MAX_PENDING) {
+				if (this.request == null) {
+					if (this.channel.read(this.header) < 0) {
+						close();
+						return;
+					}
+					if (this.header.hasRemaining()) {
+						break;
+					}
+					int length = this.header.getInt(0);
+					if (length <= 4 || length > BinaryProtocol.MAX_FRAME) {
+						throw new IOException("Invalid frame length: " 
+								+ length);
+					}
+					this.request = ByteBuffer.allocate(length);
+				}
+				if (this.channel.read(this.request) < 0) {
+					close();
+					return;
+				}
+				if (this.request.hasRemaining()) {
+					break;
+				}
+				this.request.flip();
+				this.pending.incrementAndGet();
+				NioServer.this.workers.execute(new Request(this, 
+						this.request));
+				this.request = null;
+				this.header.clear();
+			}
+			interest();
+		}
+
+		/**
+		 * Hands the response of an executed request to the selector 
+		 * thread. Called by a worker thread.
+		 */
+		private void executed(ByteBuffer executedResponse) {
+			if (!this.channel.isOpen()) {
+
+				// Closed while executing, so the request may have taken a lock.
+				this.session.close();
+				return;
+			}
+			this.responses.add(executedResponse);
+			this.pending.decrementAndGet();
+			NioServer.this.executed.add(this);
+			NioServer.this.selector.wakeup();
+		}
+
+		/**
+		 * Writes the responses of the executed requests, and reads the
+		 * connection again if it was not read while too many requests were
+		 * executed. Called by the selector thread.
+		 */
+		private void resume() {
+			if (!this.key.isValid()) {
+				return;
+			}
+			try {
+				write();
+			} catch (IOException e) {
+				close();
+			} catch (CancelledKeyException e) {
+				close();
+			}
+		}
+
+		/**
+		 * Writes the responses until they are all written or the channel
+		 * has no more room.
+		 */
+		private void write() throws IOException {
+			while (true) {
+				if (this.response == null) {
+					this.response = this.responses.poll();
+					if (this.response == null) {
+						break;
+					}
+				}
+				this.channel.write(this.response);
+				if (this.response.hasRemaining()) {
+					break;
+				}
+				this.response = null;
+			}
+			interest();
+		}
+
+		/**
+		 * Sets the operations of interest of the connection: reading while
+		 * the client may send more requests, and writing while there are
+		 * responses to write.
+		 */
+		private void interest() {
+			int ops = 0;
+			if (this.pending.get() < MAX_PENDING) {
+				ops |= SelectionKey.OP_READ;
+			}
+			if (this.response != null || !this.responses.isEmpty()) {
+				ops |= SelectionKey.OP_WRITE;
+			}
+			this.key.interestOps(ops);
+		}
+
+		/**
+		 * Closes the connection and releases the locks held by the client.
+		 */
+		private void close() {
+			if (this.key != null) {
+				this.key.cancel();
+			}
+			try {
+				this.channel.close();
+			} catch (IOException e) {
+
+				// The connection is gone anyway.
+			}
+			this.session.close();
+		}
+	}
+
+	/**
+	 * A request of a client, executed by a worker thread.
+	 */
+	private static class Request implements Runnable {
+
+		/**
+		 * The connection of the client.
+		 */
+		private final Connection connection;
+
+		/**
+		 * The body of the request.
+		 */
+		private final ByteBuffer body;
+
+		/**
+		 * Creates a request of the client of the given connection.
+		 */
+		private Request(Connection connection, ByteBuffer body) {
+			this.connection = connection;
+			this.body = body;
+		}
+
+		/**
+		 * Executes the request and hands its response to the selector 
+		 * thread. The connection is closed if the request fails in any 
+		 * other way than the errors reported to the client, since its
+		 * response could never be sent.
+		 */
+		@Override
+		public void run() {
+			ByteBuffer response;
+			try {
+				response = this.connection.session.execute(this.body);
+			} catch (Throwable e) {
+				LOGGER.log(Level.SEVERE, "Request not executed.", e);
+				this.connection.close();
+				return;
+			}
+			this.connection.executed(response);
+		}
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * NioSession.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.network;
+
+import java.nio.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import suncertify.db.Data;
+import suncertify.db.DeadlockException;
+import suncertify.db.DuplicateKeyException;
+import suncertify.db.RecordNotFoundException;
+import suncertify.db.ResultPage;
+import suncertify.db.StorageException;
+import suncertify.db.VersionConflictException;
+import suncertify.db.VersionedRecord;
+
+
+/**
+ * The session of a client connected to the {@code NioServer}. It executes
+ * the requests of the client on the database shared by all the clients,
+ * and encodes their results in the {@code BinaryProtocol}. <p>
+ * 
+ * As {@code DataRemote} does for the RMI clients, the locks taken by the
+ * client are kept, and released when the client disconnects, so a client
+ * that dies never leaves records locked. The requests of the client may be
+ * executed at once by several threads.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.3
+ * @see NioServer
+ * @see BinaryProtocol
+ */
+class NioSession {
+
+	/**
+	 * The database shared by all the clients.
+	 */
+	private Data db;
+
+	/**
+	 * The cookies of the locks held by the client, by record number. It is
+	 * guarded by its own monitor.
+	 */
+	private Map<Integer, Long> heldLocks = new HashMap<Integer, Long>();
+
+	/**
+	 * Creates the session of a client of the given database.
+	 * 
+	 * @param db the database shared by all the clients.
+	 */
+	public NioSession(Data db) {
+		this.db = db;
+	}
+
+	/**
+	 * Executes a request of the client and returns the response. Every
+	 * exception thrown by the operation is returned to the client, as is
+	 * a result too large for a frame. The locks are taken on behalf of 
+	 * this session, whichever worker thread executes the request.
+	 * 
+	 * @param request the body of the request frame.
+	 * @return the response frame.
+	 */
+	public ByteBuffer execute(ByteBuffer request) {
+		int id = request.getInt();
+		this.db.setLockOwner(this);
+		try {
+			ByteBuffer response = execute(request.get(), request).toFrame(id);
+			if (response.remaining() - 4 > BinaryProtocol.MAX_FRAME) {
+				return error(id, BinaryProtocol.FAILURE, "The result is "
+						+ "larger than the maximum frame.");
+			}
+			return response;
+		} catch (RecordNotFoundException e) {
+			return error(id, BinaryProtocol.RECORD_NOT_FOUND, e.getMessage());
+		} catch (DuplicateKeyException e) {
+			return error(id, BinaryProtocol.DUPLICATE_KEY, e.getMessage());
+		} catch (SecurityException e) {
+			return error(id, BinaryProtocol.SECURITY, e.getMessage());
+		} catch (VersionConflictException e) {
+			return error(id, BinaryProtocol.VERSION_CONFLICT, e.getMessage());
+		} catch (DeadlockException e) {
+			return error(id, BinaryProtocol.DEADLOCK, e.getMessage());
+		} catch (IllegalArgumentException e) {
+			return error(id, BinaryProtocol.ILLEGAL_ARGUMENT, e.getMessage());
+		} catch (StorageException e) {
+			return error(id, BinaryProtocol.STORAGE, e.getMessage());
+		} catch (RuntimeException e) {
+			return error(id, BinaryProtocol.FAILURE, e.getMessage());
+		} finally {
+			this.db.setLockOwner(null);
+		}
+	}
+
+	/**
+	 * Executes the operation with the given code, reading its arguments
+	 * from the request, and returns the successful response.
+	 */
+	private BinaryProtocol.Message execute(byte operation, ByteBuffer in)
+			throws RecordNotFoundException, DuplicateKeyException,
+			VersionConflictException {
+		BinaryProtocol.Message out = new BinaryProtocol.Message(
+				BinaryProtocol.OK);
+		int recNo;
+		long cookie;
+		switch (operation) {
+		case BinaryProtocol.READ :
+			return out.putStrings(this.db.read(in.getInt()));
+		case BinaryProtocol.UPDATE :
+			recNo = in.getInt();
+			String[] data = BinaryProtocol.getStrings(in);
+			this.db.update(recNo, data, in.getLong());
+			return out;
+		case BinaryProtocol.DELETE :
+			recNo = in.getInt();
+			this.db.delete(recNo, in.getLong());
+			return out;
+		case BinaryProtocol.FIND :
+			return out.putInts(this.db.find(BinaryProtocol.getStrings(in)));
+		case BinaryProtocol.CREATE :
+			return out.putInt(this.db.create(BinaryProtocol.getStrings(in)));
+		case BinaryProtocol.LOCK :
+			recNo = in.getInt();
+			cookie = this.db.lock(recNo);
+			held(recNo, cookie);
+			return out.putLong(cookie);
+		case BinaryProtocol.UNLOCK :
+			recNo = in.getInt();
+			this.db.unlock(recNo, in.getLong());
+			synchronized (this.heldLocks) {
+				this.heldLocks.remove(recNo);
+			}
+			return out;
+		case BinaryProtocol.READ_MANY :
+			return out.putStringArrays(this.db.readMany(
+					BinaryProtocol.getInts(in)));
+		case BinaryProtocol.FIND_RECORDS :
+			return out.putRecords(this.db.findRecords(
+					BinaryProtocol.getStrings(in)));
+		case BinaryProtocol.FIND_PAGE :
+			String[] criteria = BinaryProtocol.getStrings(in);
+			long token = in.getLong();
+			int offset = in.getInt();
+			ResultPage page = this.db.findPage(criteria, token, offset,
+					in.getInt());
+			return out.putRecords(page.getRecords()).putLong(
+					page.getNextToken());
+		case BinaryProtocol.BOOK_IF_AVAILABLE :
+			String[] bookKey = BinaryProtocol.getStrings(in);
+			return out.putBoolean(this.db.bookIfAvailable(bookKey,
+					BinaryProtocol.getString(in)));
+		case BinaryProtocol.RETURN_IF_OWNED :
+			String[] returnKey = BinaryProtocol.getStrings(in);
+			return out.putBoolean(this.db.returnIfOwned(returnKey,
+					BinaryProtocol.getString(in)));
+		case BinaryProtocol.BOOK_RECORDS :
+			int[] recNos = BinaryProtocol.getInts(in);
+			return out.putBoolean(this.db.bookRecords(recNos,
+					BinaryProtocol.getString(in)));
+		case BinaryProtocol.READ_VERSIONED :
+			VersionedRecord record = this.db.readVersioned(in.getInt());
+			return out.putStrings(record.getData()).putLong(
+					record.getVersion());
+		case BinaryProtocol.UPDATE_IF_VERSION :
+			recNo = in.getInt();
+			String[] newData = BinaryProtocol.getStrings(in);
+			return out.putLong(this.db.updateIfVersion(recNo, newData,
+					in.getLong()));
+		case BinaryProtocol.TRY_LOCK :
+			recNo = in.getInt();
+			cookie = this.db.tryLock(recNo, in.getLong());
+			if (cookie != 0) {
+				held(recNo, cookie);
+			}
+			return out.putLong(cookie);
+		case BinaryProtocol.RENEW_LOCK :
+			recNo = in.getInt();
+			this.db.renewLock(recNo, in.getLong());
+			return out;
+		case BinaryProtocol.LOCK_SHARED :
+			recNo = in.getInt();
+			cookie = this.db.lockShared(recNo);
+			held(recNo, cookie);
+			return out.putLong(cookie);
+		case BinaryProtocol.UPGRADE_LOCK :
+			recNo = in.getInt();
+			return out.putBoolean(this.db.upgradeLock(recNo, in.getLong()));
+		default :
+			throw new IllegalArgumentException("Unknown operation: "
+					+ operation);
+		}
+	}
+
+	/**
+	 * Releases the locks still held by the client, once it disconnected.
+	 */
+	public void close() {
+		List<Map.Entry<Integer, Long>> locks;
+		synchronized (this.heldLocks) {
+			locks = new ArrayList<Map.Entry<Integer, Long>>(
+					this.heldLocks.entrySet());
+			this.heldLocks.clear();
+		}
+		for (Map.Entry<Integer, Long> lock : locks) {
+			try {
+				this.db.unlock(lock.getKey(), lock.getValue());
+			} catch (RecordNotFoundException e) {
+
+				// The lock already expired.
+			} catch (SecurityException e) {
+
+				// The lock expired and was handed over to another client.
+			}
+		}
+	}
+
+	/**
+	 * Keeps the cookie of a lock taken by the client.
+	 */
+	private void held(int recNo, long cookie) {
+		synchronized (this.heldLocks) {
+			this.heldLocks.put(recNo, cookie);
+		}
+	}
+
+	/**
+	 * Returns the response frame of the request with the given id, whose
+	 * operation failed with the given status and message.
+	 */
+	private static ByteBuffer error(int id, byte status, String message) {
+		return new BinaryProtocol.Message(status).putString(message).toFrame(
+				id);
+	}
+}
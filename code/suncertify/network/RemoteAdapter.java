@@ -1,110 +1,242 @@
-/*
- * RemoteAdapter.java		
- * 
- * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
- */
-
-package suncertify.network;
-
-import java.rmi.RemoteException;
-
-import suncertify.db.DB;
-import suncertify.db.DuplicateKeyException;
-import suncertify.db.RecordNotFoundException;
-
-
-/**
- * This class is the implementation of the adapter pattern which is used
- * to provied the implementation of the two interfaces {@code DB} and 
- * {@code} that could not be implemented in the same class, due to 
- * the restrictions of subclassing with more checked exceptions of its
- * interfaces. 
- * 
- * @author Pedro Oliveira
- * @version 1.0
- * @see DB
- * @see DBRemote
- */
-public class RemoteAdapter implements DB {
-	
-	/**
-	 * The reference to remote database object.
-	 */
-	private DBRemote dbRemote;
-	
-	/**
-	 * Creates an instance of the remote database adapter, which
-	 * wrapps the remote database object.
-	 * 
-	 * @param dbRemote
-	 */
-	public RemoteAdapter(DBRemote dbRemote) {
-		this.dbRemote = dbRemote;
-	}
-
-	@Override
-	public String[] read(int recNo) throws RecordNotFoundException {
-		try {
-			return this.dbRemote.read(recNo);
-		} catch (RemoteException e) {
-			throw new RecordNotFoundException();
-		}
-	}
-
-	@Override
-	public void update(int recNo, String[] data, long lockCookie)
-			throws RecordNotFoundException, SecurityException {
-		try {
-			this.dbRemote.update(recNo, data, lockCookie);
-		} catch (RemoteException e) {
-			throw new RecordNotFoundException();
-		}
-	}
-
-	@Override
-	public void delete(int recNo, long lockCookie)
-			throws RecordNotFoundException, SecurityException {
-		try {
-			this.dbRemote.delete(recNo, lockCookie);
-		} catch (RemoteException e) {
-			throw new RecordNotFoundException();
-		}
-	}
-
-	@Override
-	public int[] find(String[] criteria) {
-		try {
-			return this.dbRemote.find(criteria);
-		} catch (RemoteException e) {
-			return new int[]{};
-		}
-	}
-
-	@Override
-	public int create(String[] data) throws DuplicateKeyException {
-		try {
-			return this.dbRemote.create(data);
-		} catch (RemoteException e) {
-			throw new DuplicateKeyException();
-		}
-	}
-
-	@Override
-	public long lock(int recNo) throws RecordNotFoundException {
-		try {
-			return this.dbRemote.lock(recNo);
-		} catch (RemoteException e) {
-			throw new RecordNotFoundException();
-		}
-	}
-
-	@Override
-	public void unlock(int recNo, long cookie) throws RecordNotFoundException,
-			SecurityException {
-		try {
-			this.dbRemote.unlock(recNo, cookie);
-		} catch (RemoteException e) {
-			throw new RecordNotFoundException();
-		}
-	}
-}
+/*
+ * RemoteAdapter.java		
+ * 
+ * Copyright (c) 2011, Pedro Oliveira. All Rights Reserved.
+ */
+
+package suncertify.network;
+
+import java.rmi.RemoteException;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import suncertify.db.DB;
+import suncertify.db.DuplicateKeyException;
+import suncertify.db.ExtendedDB;
+import suncertify.db.RecordNotFoundException;
+import suncertify.db.ResultPage;
+import suncertify.db.VersionConflictException;
+import suncertify.db.VersionedRecord;
+
+
+/**
+ * This class is the implementation of the adapter pattern which is used
+ * to provied the implementation of the two interfaces {@code DB} and 
+ * {@code} that could not be implemented in the same class, due to 
+ * the restrictions of subclassing with more checked exceptions of its
+ * interfaces. <p>
+ * 
+ * The unchecked exceptions of the server, as a {@code StorageException}
+ * of a database file which could not be read, are thrown by RMI as they
+ * were thrown in the server.
+ * 
+ * @author Pedro Oliveira
+ * @version 1.9
+ * @see DB
+ * @see ExtendedDB
+ * @see DBRemote
+ */
+public class RemoteAdapter implements ExtendedDB {
+	
+	/**
+	 * The reference to remote database object.
+	 */
+	private DBRemote dbRemote;
+	
+	/**
+	 * Creates an instance of the remote database adapter, which
+	 * wrapps the remote database object.
+	 * 
+	 * @param dbRemote
+	 */
+	public RemoteAdapter(DBRemote dbRemote) {
+		this.dbRemote = dbRemote;
+	}
+
+	@Override
+	public String[] read(int recNo) throws RecordNotFoundException {
+		try {
+			return this.dbRemote.read(recNo);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public void update(int recNo, String[] data, long lockCookie)
+			throws RecordNotFoundException, SecurityException {
+		try {
+			this.dbRemote.update(recNo, data, lockCookie);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public void delete(int recNo, long lockCookie)
+			throws RecordNotFoundException, SecurityException {
+		try {
+			this.dbRemote.delete(recNo, lockCookie);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public int[] find(String[] criteria) {
+		try {
+			return this.dbRemote.find(criteria);
+		} catch (RemoteException e) {
+			return new int[]{};
+		}
+	}
+
+	@Override
+	public String[][] readMany(int[] recNos) {
+		try {
+			return this.dbRemote.readMany(recNos);
+		} catch (RemoteException e) {
+			return new String[recNos.length][];
+		}
+	}
+
+	@Override
+	public SortedMap<Integer, String[]> findRecords(String[] criteria) {
+		try {
+			return this.dbRemote.findRecords(criteria);
+		} catch (RemoteException e) {
+			return new TreeMap<Integer, String[]>();
+		}
+	}
+
+	@Override
+	public ResultPage findPage(String[] criteria, long token, int offset,
+			int limit) {
+		try {
+			return this.dbRemote.findPage(criteria, token, offset, limit);
+		} catch (RemoteException e) {
+			return new ResultPage(new TreeMap<Integer, String[]>(), 
+					ResultPage.END);
+		}
+	}
+
+	@Override
+	public boolean bookIfAvailable(String[] key, String customerId)
+			throws RecordNotFoundException, DuplicateKeyException {
+		try {
+			return this.dbRemote.bookIfAvailable(key, customerId);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public boolean returnIfOwned(String[] key, String customerId)
+			throws RecordNotFoundException, DuplicateKeyException {
+		try {
+			return this.dbRemote.returnIfOwned(key, customerId);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public boolean bookRecords(int[] recNos, String customerId)
+			throws RecordNotFoundException {
+		try {
+			return this.dbRemote.bookRecords(recNos, customerId);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public VersionedRecord readVersioned(int recNo) 
+			throws RecordNotFoundException {
+		try {
+			return this.dbRemote.readVersioned(recNo);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public long updateIfVersion(int recNo, String[] data, 
+			long expectedVersion) throws RecordNotFoundException,
+			VersionConflictException {
+		try {
+			return this.dbRemote.updateIfVersion(recNo, data, 
+					expectedVersion);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public int create(String[] data) throws DuplicateKeyException {
+		try {
+			return this.dbRemote.create(data);
+		} catch (RemoteException e) {
+			throw new DuplicateKeyException();
+		}
+	}
+
+	@Override
+	public long lock(int recNo) throws RecordNotFoundException {
+		try {
+			return this.dbRemote.lock(recNo);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public long tryLock(int recNo, long timeout) 
+			throws RecordNotFoundException {
+		try {
+			return this.dbRemote.tryLock(recNo, timeout);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public void renewLock(int recNo, long lockCookie) 
+			throws RecordNotFoundException, SecurityException {
+		try {
+			this.dbRemote.renewLock(recNo, lockCookie);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public long lockShared(int recNo) throws RecordNotFoundException {
+		try {
+			return this.dbRemote.lockShared(recNo);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public boolean upgradeLock(int recNo, long lockCookie) 
+			throws RecordNotFoundException, SecurityException {
+		try {
+			return this.dbRemote.upgradeLock(recNo, lockCookie);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+
+	@Override
+	public void unlock(int recNo, long cookie) throws RecordNotFoundException,
+			SecurityException {
+		try {
+			this.dbRemote.unlock(recNo, cookie);
+		} catch (RemoteException e) {
+			throw new RecordNotFoundException();
+		}
+	}
+}